@@ -0,0 +1,73 @@
+package com.example.taskmanager.api.tasks;
+
+import com.example.taskmanager.domain.Task;
+import com.example.taskmanager.domain.TaskId;
+import com.example.taskmanager.domain.UserId;
+import com.example.taskmanager.service.TaskEditDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Mapping between the API and the domain: a page of tasks to {@link TaskResponse}s as {@code TaskController}
+ * does for every search, and an {@link EditTaskRequest} to its {@link TaskEditDto}.
+ * <p>
+ * Run with {@code ./gradlew jmh -PjmhIncludes=TaskMappingBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class TaskMappingBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"0", "3", "50"})
+    public int assigneesPerTask;
+
+    private final Function<Task, TaskResponse> toResponse = TaskController.toResponse();
+    private List<Task> page;
+    private EditTaskRequest editRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        page = Stream.generate(() -> Task.create(
+                        TaskId.generate(),
+                        "Fix login bug",
+                        "Users can't log in after the password reset",
+                        LocalDateTime.now().plusDays(7),
+                        Stream.generate(UserId::generate).limit(assigneesPerTask).toList()))
+                .limit(PAGE_SIZE)
+                .toList();
+        editRequest = new EditTaskRequest("Fix login bug", null, LocalDateTime.now().plusDays(14),
+                Stream.generate(UUID::randomUUID).limit(assigneesPerTask).toList());
+    }
+
+    @Benchmark
+    public List<TaskResponse> pageToResponses() {
+        return page.stream().map(toResponse).toList();
+    }
+
+    @Benchmark
+    public TaskEditDto editRequestToDto() {
+        return editRequest.toDto();
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.taskmanager.domain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Cost of the assignee collection of {@link Task} by number of assignees: reading the cached view, building the view
+ * of a new task, assigning new users and the ignored assignment of an already assigned one.
+ * Assigning new users grows the task, so they are assigned to a fresh task each time; subtract {@code createTask}
+ * from {@code createTaskAndAssignNewUsers} to get the cost of the assignments alone.
+ * <p>
+ * Run with {@code ./gradlew jmh -PjmhIncludes=TaskAssigneesBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class TaskAssigneesBenchmark {
+
+    private static final int NEW_ASSIGNEES = 100;
+
+    @Param({"1", "100", "10000"})
+    public int assigneeCount;
+
+    private List<UserId> assignees;
+    private List<UserId> newAssignees;
+    private Task task;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        assignees = Stream.generate(UserId::generate).limit(assigneeCount).toList();
+        newAssignees = Stream.generate(UserId::generate).limit(NEW_ASSIGNEES).toList();
+        task = Task.create(TaskId.generate(), "Benchmark task", null, null, assignees);
+        task.getAssignedUsers();
+    }
+
+    @Benchmark
+    public List<UserId> getAssignedUsers() {
+        return task.getAssignedUsers();
+    }
+
+    @Benchmark
+    public Task assignAlreadyAssignedUser() {
+        task.assignUser(assignees.get(0));
+        return task;
+    }
+
+    @Benchmark
+    public Task createTask() {
+        return Task.create(TaskId.generate(), "Benchmark task", null, null, assignees);
+    }
+
+    @Benchmark
+    public List<UserId> createTaskAndReadAssignees() {
+        return Task.create(TaskId.generate(), "Benchmark task", null, null, assignees).getAssignedUsers();
+    }
+
+    @Benchmark
+    public Task createTaskAndAssignNewUsers() {
+        final var newTask = Task.create(TaskId.generate(), "Benchmark task", null, null, assignees);
+        newAssignees.forEach(newTask::assignUser);
+        return newTask;
+    }
+}
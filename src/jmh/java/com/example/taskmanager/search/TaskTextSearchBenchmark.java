@@ -0,0 +1,147 @@
+package com.example.taskmanager.search;
+
+import com.example.taskmanager.domain.Task;
+import com.example.taskmanager.domain.TaskId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a search page (20 best matches plus the total) served by {@link TaskTextIndex} with the same page served by
+ * the {@code LIKE '%...%'} queries of {@code TaskRepository} on H2. Sample time mode reports the p99 latency.
+ * <p>
+ * Run with {@code ./gradlew jmh -PjmhIncludes=TaskTextSearchBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class TaskTextSearchBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+    private static final List<String> DOMAIN_WORDS = List.of("login", "invoice", "payment", "bug", "release", "report");
+    private static final String[] SYLLABLES = {"ka", "lo", "mi", "ne", "ra", "so", "tu", "vi", "xe", "zo", "pa", "qui"};
+
+    @Param("1000000")
+    public int taskCount;
+
+    // a whole word, a prefix of a word and a word that doesn't occur
+    @Param({"login", "inv", "unknown"})
+    public String query;
+
+    private TaskTextIndex index;
+    private Connection connection;
+    private PreparedStatement likePage;
+    private PreparedStatement likeCount;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        final var random = new Random(42);
+        final var vocabulary = vocabulary(random, 5_000);
+        index = new TaskTextIndex();
+        connection = DriverManager.getConnection("jdbc:h2:mem:text-search-benchmark;DB_CLOSE_DELAY=-1", "sa", "");
+        try (var statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE tasks (id UUID PRIMARY KEY, title VARCHAR(255), description VARCHAR(255))");
+        }
+
+        connection.setAutoCommit(false);
+        try (var insert = connection.prepareStatement("INSERT INTO tasks (id, title, description) VALUES (?, ?, ?)")) {
+            for (int i = 0; i < taskCount; i++) {
+                final var task = Task.create(TaskId.generate(), sentence(random, vocabulary, 4), sentence(random, vocabulary, 12), null, List.of());
+                index.index(task);
+                insert.setObject(1, task.getId().id());
+                insert.setString(2, task.getTitle());
+                insert.setString(3, task.getDescription());
+                insert.addBatch();
+                if (i % 1_000 == 999) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
+        }
+        connection.setAutoCommit(true);
+
+        final var filter = " WHERE LOWER(title) LIKE LOWER(CONCAT('%', ?, '%')) OR LOWER(description) LIKE LOWER(CONCAT('%', ?, '%'))";
+        likePage = connection.prepareStatement("SELECT id, title, description FROM tasks" + filter + " LIMIT " + PAGE_SIZE);
+        likeCount = connection.prepareStatement("SELECT COUNT(*) FROM tasks" + filter);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public void indexSearch(Blackhole blackhole) {
+        blackhole.consume(index.search(query, 0, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public void likeSearch(Blackhole blackhole) throws SQLException {
+        likePage.setString(1, query);
+        likePage.setString(2, query);
+        try (var rows = likePage.executeQuery()) {
+            while (rows.next()) {
+                blackhole.consume(rows.getObject(1, UUID.class));
+            }
+        }
+        likeCount.setString(1, query);
+        likeCount.setString(2, query);
+        try (var count = likeCount.executeQuery()) {
+            count.next();
+            blackhole.consume(count.getLong(1));
+        }
+    }
+
+    private static String[] vocabulary(Random random, int size) {
+        final var words = new String[size];
+        for (int i = 0; i < size; i++) {
+            words[i] = i < DOMAIN_WORDS.size() ? DOMAIN_WORDS.get(i) : randomWord(random);
+        }
+        return words;
+    }
+
+    private static String randomWord(Random random) {
+        final var word = new StringBuilder();
+        final var syllables = 2 + random.nextInt(3);
+        for (int i = 0; i < syllables; i++) {
+            word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return word.toString();
+    }
+
+    private static String sentence(Random random, String[] vocabulary, int words) {
+        final var sentence = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sentence.append(' ');
+            }
+            sentence.append(vocabulary[random.nextInt(vocabulary.length)]);
+        }
+        return sentence.toString();
+    }
+}
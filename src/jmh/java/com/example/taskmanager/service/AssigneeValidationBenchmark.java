@@ -0,0 +1,130 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.domain.UserId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares ways of checking that all assignees of a task exist: one {@code existsById} query per assignee,
+ * a single {@code IN} query as {@code UserRepository#findMissingIds} does, and the in-memory {@link KnownUserIds}.
+ * Queries run against H2 over plain JDBC, so the numbers don't include any JPA overhead.
+ * <p>
+ * Run with {@code ./gradlew jmh -PjmhIncludes=AssigneeValidationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class AssigneeValidationBenchmark {
+
+    @Param("1000000")
+    public int userCount;
+
+    @Param({"1", "10", "50"})
+    public int assigneeCount;
+
+    private final List<UserId> userIds = new ArrayList<>();
+    private final Random random = new Random(42);
+    private KnownUserIds knownUserIds;
+    private Connection connection;
+    private PreparedStatement existsById;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        knownUserIds = new KnownUserIds();
+        connection = DriverManager.getConnection("jdbc:h2:mem:assignee-validation-benchmark;DB_CLOSE_DELAY=-1", "sa", "");
+        try (var statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE users (id UUID PRIMARY KEY)");
+        }
+
+        connection.setAutoCommit(false);
+        try (var insert = connection.prepareStatement("INSERT INTO users (id) VALUES (?)")) {
+            for (int i = 0; i < userCount; i++) {
+                final var userId = UserId.generate();
+                userIds.add(userId);
+                knownUserIds.add(userId);
+                insert.setObject(1, userId.id());
+                insert.addBatch();
+                if (i % 1_000 == 999) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+            insert.executeBatch();
+            connection.commit();
+        }
+        connection.setAutoCommit(true);
+
+        existsById = connection.prepareStatement("SELECT 1 FROM users WHERE id = ?");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public void existsByIdLoop(Blackhole blackhole) throws SQLException {
+        for (UserId userId : assignees()) {
+            existsById.setObject(1, userId.id());
+            try (var rows = existsById.executeQuery()) {
+                blackhole.consume(rows.next());
+            }
+        }
+    }
+
+    @Benchmark
+    public void singleInQuery(Blackhole blackhole) throws SQLException {
+        final var assignees = assignees();
+        final var placeholders = String.join(", ", Collections.nCopies(assignees.size(), "?"));
+        // prepared per call like Hibernate does for a collection parameter of varying size
+        try (var query = connection.prepareStatement("SELECT id FROM users WHERE id IN (" + placeholders + ")")) {
+            for (int i = 0; i < assignees.size(); i++) {
+                query.setObject(i + 1, assignees.get(i).id());
+            }
+            try (var rows = query.executeQuery()) {
+                while (rows.next()) {
+                    blackhole.consume(rows.getObject(1, UUID.class));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void knownUserIds(Blackhole blackhole) {
+        blackhole.consume(knownUserIds.unknownOf(assignees()));
+    }
+
+    private List<UserId> assignees() {
+        final var assignees = new ArrayList<UserId>(assigneeCount);
+        for (int i = 0; i < assigneeCount; i++) {
+            assignees.add(userIds.get(random.nextInt(userIds.size())));
+        }
+        return assignees;
+    }
+}
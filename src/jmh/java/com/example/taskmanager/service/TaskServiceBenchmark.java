@@ -0,0 +1,189 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.TaskManagerApp;
+import com.example.taskmanager.domain.Task;
+import com.example.taskmanager.domain.TaskId;
+import com.example.taskmanager.domain.TaskStatus;
+import com.example.taskmanager.domain.User;
+import com.example.taskmanager.domain.UserId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TaskService#findTasks} and {@link TaskService#addTask} through the whole Spring, JPA and H2 stack,
+ * on a database seeded with users and tasks having zero to three assignees each. Totals of repeated searches
+ * come from the count cache of the service, so the searches mostly measure the page query.
+ * Tasks added by {@code addTask} stay, which grows the data by a few percent over a run.
+ * <p>
+ * {@code addTasksInChunk} and {@code addTasksOneByOne} store the same {@value #INSERT_CHUNK_SIZE} tasks either with
+ * one {@link TaskService#addTasks} call or with one {@link TaskService#addTask} call each. Both report the time per
+ * task, so their ratio is the speedup of the batch endpoint; the tasks they add are deleted after every iteration.
+ * <p>
+ * Run with {@code ./gradlew jmh -PjmhIncludes=TaskServiceBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class TaskServiceBenchmark {
+
+    private static final int CHUNK_SIZE = 1000;
+    private static final int INSERT_CHUNK_SIZE = 100;
+    private static final int PAGE_SIZE = 20;
+    private static final List<String> WORDS = List.of("login", "invoice", "payment", "bug", "release", "report", "deploy", "review");
+
+    @Param("10000")
+    public int userCount;
+
+    @Param("200000")
+    public int taskCount;
+
+    private final Random random = new Random(42);
+    private final List<UserId> userIds = new ArrayList<>();
+    private final List<TaskId> insertedTaskIds = new ArrayList<>();
+    private ConfigurableApplicationContext context;
+    private TaskService taskService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws DomainObjectValidationException {
+        context = new SpringApplicationBuilder(TaskManagerApp.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:task-service-benchmark;QUERY_CACHE_SIZE=64",
+                        "logging.level.root=WARN")
+                .run();
+        taskService = context.getBean(TaskService.class);
+        final var userService = context.getBean(UserService.class);
+
+        final var users = new ArrayList<User>(CHUNK_SIZE);
+        for (int i = 0; i < userCount; i++) {
+            final var user = User.create(UserId.generate(), "First" + i, "Last" + i, "user" + i + "@acme.com");
+            userIds.add(user.getId());
+            users.add(user);
+            if (users.size() == CHUNK_SIZE || i == userCount - 1) {
+                userService.addUsers(List.copyOf(users));
+                users.clear();
+            }
+        }
+
+        final var tasks = new ArrayList<Task>(CHUNK_SIZE);
+        final var activeTasks = new ArrayList<TaskId>();
+        for (int i = 0; i < taskCount; i++) {
+            final var task = newTask();
+            tasks.add(task);
+            if (i % 3 == 0) {
+                activeTasks.add(task.getId());
+            }
+            if (tasks.size() == CHUNK_SIZE || i == taskCount - 1) {
+                taskService.addTasks(List.copyOf(tasks));
+                tasks.clear();
+            }
+        }
+        taskService.changeStatusOfAll(activeTasks, TaskStatus.Active);
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteInsertedTasks() {
+        taskService.deleteTasks(insertedTaskIds);
+        insertedTaskIds.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<Task> findTasksByStatus() {
+        return taskService.findTasks(new TaskSearchParams(null, null, TaskStatus.Active, null, null, null), randomPage());
+    }
+
+    @Benchmark
+    public Page<Task> findTasksByTitle() {
+        return taskService.findTasks(new TaskSearchParams(randomWord(), null, null, null, null, null), randomPage());
+    }
+
+    @Benchmark
+    public Page<Task> findTasksOfAssignee() {
+        return taskService.findTasks(new TaskSearchParams(null, null, null, null, null, randomUser()), PageRequest.of(0, PAGE_SIZE));
+    }
+
+    @Benchmark
+    public Task addTask() throws UserNotFoundException, DomainObjectValidationException {
+        final var task = newTask();
+        taskService.addTask(task);
+        return task;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INSERT_CHUNK_SIZE)
+    public List<TaskBatchOutcome> addTasksInChunk() throws DomainObjectValidationException {
+        return taskService.addTasks(newInsertChunk());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(INSERT_CHUNK_SIZE)
+    public List<Task> addTasksOneByOne() throws UserNotFoundException, DomainObjectValidationException {
+        final var tasks = newInsertChunk();
+        for (Task task : tasks) {
+            taskService.addTask(task);
+        }
+        return tasks;
+    }
+
+    private List<Task> newInsertChunk() {
+        final var tasks = new ArrayList<Task>(INSERT_CHUNK_SIZE);
+        for (int i = 0; i < INSERT_CHUNK_SIZE; i++) {
+            final var task = newTask();
+            tasks.add(task);
+            insertedTaskIds.add(task.getId());
+        }
+        return tasks;
+    }
+
+    private Task newTask() {
+        final var assignees = new ArrayList<UserId>(3);
+        for (int i = random.nextInt(4); i > 0; i--) {
+            assignees.add(randomUser());
+        }
+        return Task.create(TaskId.generate(), randomWord() + " " + randomWord() + " " + random.nextInt(1000),
+                "Seeded task about " + randomWord(), LocalDateTime.now().plusDays(1 + random.nextInt(90)), assignees);
+    }
+
+    private PageRequest randomPage() {
+        return PageRequest.of(random.nextInt(10), PAGE_SIZE);
+    }
+
+    private String randomWord() {
+        return WORDS.get(random.nextInt(WORDS.size()));
+    }
+
+    private UserId randomUser() {
+        return userIds.get(random.nextInt(userIds.size()));
+    }
+}
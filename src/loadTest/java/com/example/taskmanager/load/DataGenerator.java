@@ -0,0 +1,141 @@
+package com.example.taskmanager.load;
+
+import com.example.taskmanager.db.TaskRepository;
+import com.example.taskmanager.db.UserRepository;
+import com.example.taskmanager.domain.Task;
+import com.example.taskmanager.domain.TaskId;
+import com.example.taskmanager.domain.TaskStatus;
+import com.example.taskmanager.domain.User;
+import com.example.taskmanager.domain.UserId;
+import com.example.taskmanager.service.TaskService;
+import com.example.taskmanager.service.UserService;
+import org.springframework.context.ApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Seeds users and tasks straight through the repositories, in batched transactions of {@value #CHUNK_SIZE} rows,
+ * and then rebuilds the in-memory indexes the services keep next to the database.
+ * <p>
+ * Assignees are skewed like in a real team: most tasks have one assignee, some none or several, and users are picked
+ * by a Zipf distribution, so a few users own a large share of all tasks while most have only a handful.
+ * Apart from ids and deadlines, the same seed always generates the same data.
+ */
+final class DataGenerator {
+
+    private static final int CHUNK_SIZE = 1000;
+    /**
+     * Shares of tasks having zero, one, two, three and four assignees.
+     */
+    private static final double[] ASSIGNEE_COUNT_SHARES = {0.15, 0.55, 0.20, 0.07, 0.03};
+    private static final List<String> FIRST_NAMES = List.of("Anna", "Ben", "Clara", "David", "Eva", "Felix", "Greta", "Hugo", "Ida", "Jonas");
+    private static final List<String> LAST_NAMES = List.of("Meyer", "Schmidt", "Novak", "Rossi", "Berg", "Larsen", "Costa", "Kowalski", "Smith", "Weber");
+    private static final List<String> WORDS = List.of("login", "invoice", "payment", "bug", "release", "report", "deploy",
+            "backup", "review", "search", "export", "onboarding", "migration", "dashboard", "audit", "alert");
+
+    record Data(List<UserId> users, List<TaskId> tasks) {
+    }
+
+    private final ApplicationContext app;
+    private final Random random;
+
+    DataGenerator(ApplicationContext app, long seed) {
+        this.app = app;
+        this.random = new Random(seed);
+    }
+
+    Data seed(int userCount, int taskCount) {
+        final var transactions = app.getBean(TransactionTemplate.class);
+        final var userRepository = app.getBean(UserRepository.class);
+        final var taskRepository = app.getBean(TaskRepository.class);
+
+        final var users = new ArrayList<UserId>(userCount);
+        for (int from = 0; from < userCount; from += CHUNK_SIZE) {
+            final var chunk = IntStream.range(from, Math.min(from + CHUNK_SIZE, userCount)).mapToObj(this::newUser).toList();
+            transactions.executeWithoutResult(status -> userRepository.insertAll(chunk));
+            chunk.forEach(user -> users.add(user.getId()));
+        }
+
+        final var assignees = new ZipfSampler(userCount, 1.0);
+        final var tasks = new ArrayList<TaskId>(taskCount);
+        for (int from = 0; from < taskCount; from += CHUNK_SIZE) {
+            final var chunk = Stream.generate(() -> newTask(users, assignees)).limit(Math.min(CHUNK_SIZE, taskCount - from)).toList();
+            transactions.executeWithoutResult(status -> taskRepository.insertAll(chunk));
+            chunk.forEach(task -> tasks.add(task.getId()));
+        }
+
+        app.getBean(UserService.class).rebuildIndexes();
+        app.getBean(TaskService.class).rebuildTextIndex();
+        return new Data(List.copyOf(users), List.copyOf(tasks));
+    }
+
+    private User newUser(int index) {
+        final var firstName = pick(FIRST_NAMES);
+        final var lastName = pick(LAST_NAMES);
+        return User.create(UserId.generate(), firstName, lastName,
+                firstName.toLowerCase(Locale.ROOT) + "." + lastName.toLowerCase(Locale.ROOT) + index + "@example.com");
+    }
+
+    private Task newTask(List<UserId> users, ZipfSampler assignees) {
+        final var assigned = new LinkedHashSet<UserId>();
+        if (!users.isEmpty()) {
+            for (int i = assigneeCount(); i > 0; i--) {
+                assigned.add(users.get(assignees.next(random)));
+            }
+        }
+        // a fifth of the tasks have no deadline, the others are due within the next half year
+        final var deadline = random.nextInt(5) == 0 ? null : LocalDateTime.now().plusHours(1 + random.nextInt(180 * 24));
+        final var task = Task.create(TaskId.generate(), pick(WORDS) + " " + pick(WORDS) + " " + random.nextInt(10_000),
+                "Follow up on the " + pick(WORDS) + " of the " + pick(WORDS), deadline, List.copyOf(assigned));
+        // older tasks pile up as completed, so that is the most common status
+        final int status = random.nextInt(10);
+        task.changeStatus(status < 3 ? TaskStatus.New : status < 5 ? TaskStatus.Active : TaskStatus.Completed);
+        return task;
+    }
+
+    private int assigneeCount() {
+        double remaining = random.nextDouble();
+        for (int count = 0; count < ASSIGNEE_COUNT_SHARES.length; count++) {
+            remaining -= ASSIGNEE_COUNT_SHARES[count];
+            if (remaining < 0) {
+                return count;
+            }
+        }
+        return ASSIGNEE_COUNT_SHARES.length - 1;
+    }
+
+    private <T> T pick(List<T> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    /**
+     * Draws ranks from {@code 0} to {@code size - 1}, rank {@code k} with a probability proportional to {@code 1 / (k + 1)^exponent}.
+     */
+    static final class ZipfSampler {
+
+        private final double[] cumulative;
+
+        ZipfSampler(int size, double exponent) {
+            cumulative = new double[size];
+            double sum = 0;
+            for (int rank = 0; rank < size; rank++) {
+                sum += 1 / Math.pow(rank + 1, exponent);
+                cumulative[rank] = sum;
+            }
+        }
+
+        int next(Random random) {
+            final int index = Arrays.binarySearch(cumulative, random.nextDouble() * cumulative[cumulative.length - 1]);
+            return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+        }
+    }
+}
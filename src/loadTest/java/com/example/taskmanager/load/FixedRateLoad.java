@@ -0,0 +1,129 @@
+package com.example.taskmanager.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Open-model load: requests are started at a fixed rate no matter how long the earlier ones take, each on a virtual
+ * thread of its own. Latency is measured from the moment a request was due rather than from when it was sent,
+ * so a server falling behind shows up as latency instead of as a silently lowered rate.
+ * Latencies are recorded into HdrHistograms, in total and per operation.
+ */
+final class FixedRateLoad {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    /**
+     * A request labeled with the operation its latency is reported under.
+     */
+    record Request(String operation, HttpRequest httpRequest) {
+    }
+
+    record Latencies(long requests, long failed, Histogram histogram) {
+
+        Duration percentile(double percentile) {
+            return Duration.ofNanos(histogram.getValueAtPercentile(percentile));
+        }
+
+        Duration max() {
+            return Duration.ofNanos(histogram.getMaxValue());
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%8d requests, p50 %6.1f ms, p90 %6.1f ms, p99 %7.1f ms, p99.9 %7.1f ms, max %7.1f ms, %d failed",
+                    requests, millis(percentile(50)), millis(percentile(90)), millis(percentile(99)),
+                    millis(percentile(99.9)), millis(max()), failed);
+        }
+    }
+
+    record Result(int ratePerSecond, double throughput, Latencies all, Map<String, Latencies> operations) {
+
+        long failed() {
+            return all.failed();
+        }
+
+        Duration p99() {
+            return all.percentile(99);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%6d req/s offered: %8.1f req/s done, p50 %6.1f ms, p99 %7.1f ms, max %7.1f ms, %d of %d failed",
+                    ratePerSecond, throughput, millis(all.percentile(50)), millis(p99()), millis(all.max()), failed(), all.requests());
+        }
+    }
+
+    private record Recording(Histogram histogram, LongAdder failed) {
+
+        Recording() {
+            this(new ConcurrentHistogram(SIGNIFICANT_DIGITS), new LongAdder());
+        }
+
+        Latencies latencies() {
+            return new Latencies(histogram.getTotalCount(), failed.sum(), histogram);
+        }
+    }
+
+    private FixedRateLoad() {
+    }
+
+    static Result run(HttpClient client, Supplier<Request> requests, int ratePerSecond, Duration duration) {
+        final long intervalNanos = 1_000_000_000L / ratePerSecond;
+        final int count = Math.toIntExact(duration.toNanos() / intervalNanos);
+        final var all = new Recording();
+        final var operations = new ConcurrentHashMap<String, Recording>();
+
+        final long start = System.nanoTime();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < count; i++) {
+                final long due = start + i * intervalNanos;
+                final long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                final var request = requests.get();
+                final var recording = operations.computeIfAbsent(request.operation(), operation -> new Recording());
+                executor.execute(() -> {
+                    boolean succeeded = false;
+                    try {
+                        succeeded = client.send(request.httpRequest(), HttpResponse.BodyHandlers.discarding()).statusCode() < 400;
+                    } catch (IOException e) {
+                        // counted as failed below
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    final long latency = System.nanoTime() - due;
+                    for (var target : new Recording[]{all, recording}) {
+                        target.histogram().recordValue(latency);
+                        if (!succeeded) {
+                            target.failed().increment();
+                        }
+                    }
+                });
+            }
+        }
+        final long elapsed = System.nanoTime() - start;
+
+        final var latenciesByOperation = new TreeMap<String, Latencies>();
+        operations.forEach((operation, recording) -> latenciesByOperation.put(operation, recording.latencies()));
+        return new Result(ratePerSecond, count / (elapsed / 1_000_000_000.0), all.latencies(), latenciesByOperation);
+    }
+
+    private static double millis(Duration duration) {
+        return duration.toNanos() / 1_000_000.0;
+    }
+}
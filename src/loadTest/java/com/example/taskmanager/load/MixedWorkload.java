@@ -0,0 +1,191 @@
+package com.example.taskmanager.load;
+
+import com.example.taskmanager.TaskManagerApp;
+import com.example.taskmanager.domain.TaskId;
+import com.example.taskmanager.domain.TaskStatus;
+import com.example.taskmanager.domain.UserId;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * Release gate for the REST layer: starts the app on its in-memory H2, seeds it with {@link DataGenerator}
+ * and then drives {@code /api/tasks} and {@code /api/users} with a mix of reads and writes at a fixed rate.
+ * Reports throughput and latency percentiles in total and per operation, writes the full latency distribution of each
+ * operation as {@code .hgrm} file, and exits with status 1 if any request failed or the p99 exceeds the limit.
+ * <p>
+ * Configured by system properties, e.g. {@code ./gradlew mixedLoadTest -Ploadtest.rate=1000 -Ploadtest.writePercent=20}:
+ * {@code loadtest.users}, {@code loadtest.tasks}, {@code loadtest.rate}, {@code loadtest.seconds},
+ * {@code loadtest.warmupSeconds}, {@code loadtest.writePercent}, {@code loadtest.p99Millis}, {@code loadtest.seed}
+ * and {@code loadtest.reportDir}.
+ */
+public final class MixedWorkload {
+
+    private static final List<String> WORDS = List.of("login", "invoice", "payment", "bug", "release", "report", "deploy", "review");
+    private static final List<String> NAME_FRAGMENTS = List.of("an", "be", "cla", "da", "eva", "meyer", "novak", "ross", "berg", "smi");
+
+    private record Operation(String name, int weight, Function<Random, HttpRequest> request) {
+    }
+
+    private final URI baseUri;
+    private final DataGenerator.Data data;
+    private final DataGenerator.ZipfSampler userPopularity;
+    private final List<Operation> reads;
+    private final List<Operation> writes;
+    private final int writePercent;
+
+    private MixedWorkload(URI baseUri, DataGenerator.Data data, int writePercent) {
+        this.baseUri = baseUri;
+        this.data = data;
+        this.userPopularity = new DataGenerator.ZipfSampler(data.users().size(), 1.0);
+        this.writePercent = writePercent;
+        this.reads = List.of(
+                new Operation("findTasks", 40, this::findTasks),
+                new Operation("getTask", 25, random -> get("/api/tasks/" + anyTask(random).id())),
+                new Operation("tasksOfUser", 20, random -> get("/api/users/" + popularUser(random).id() + "/tasks?size=20")),
+                new Operation("findUsers", 10, random -> get("/api/users?lastName=" + pick(random, NAME_FRAGMENTS) + "&size=20")),
+                new Operation("suggestUsers", 5, random -> get("/api/users/suggest?q=" + pick(random, NAME_FRAGMENTS))));
+        this.writes = List.of(
+                new Operation("addTask", 50, this::addTask),
+                new Operation("changeStatus", 40, random -> json("PATCH", "/api/tasks/" + anyTask(random).id() + "/status",
+                        "{\"status\":\"" + pick(random, List.of(TaskStatus.values())) + "\"}")),
+                new Operation("addUser", 10, random -> json("POST", "/api/users", String.format(
+                        "{\"firstName\":\"Load\",\"lastName\":\"Test\",\"email\":\"load.%d@example.com\"}", random.nextLong(Long.MAX_VALUE)))));
+    }
+
+    public static void main(String[] args) throws Exception {
+        final var users = Integer.getInteger("loadtest.users", 10_000);
+        final var tasks = Integer.getInteger("loadtest.tasks", 100_000);
+        final var rate = Integer.getInteger("loadtest.rate", 500);
+        final var duration = Duration.ofSeconds(Long.getLong("loadtest.seconds", 60));
+        final var warmup = Duration.ofSeconds(Long.getLong("loadtest.warmupSeconds", 15));
+        final var writePercent = Integer.getInteger("loadtest.writePercent", 10);
+        final var p99Limit = Duration.ofMillis(Long.getLong("loadtest.p99Millis", 100));
+        final var seed = Long.getLong("loadtest.seed", 42);
+        final var reportDir = Path.of(System.getProperty("loadtest.reportDir", "build/reports/loadtest"));
+        if (users < 1 || tasks < 1) {
+            throw new IllegalArgumentException("loadtest.users and loadtest.tasks must be positive");
+        }
+        if (writePercent < 0 || writePercent > 100) {
+            throw new IllegalArgumentException("loadtest.writePercent must be between 0 and 100");
+        }
+
+        final FixedRateLoad.Result result;
+        try (var app = start();
+             var client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build()) {
+            final long seedingStart = System.nanoTime();
+            final var data = new DataGenerator(app, seed).seed(users, tasks);
+            System.out.printf("Seeded %d users and %d tasks in %d s%n", users, tasks, Duration.ofNanos(System.nanoTime() - seedingStart).toSeconds());
+
+            final var workload = new MixedWorkload(
+                    URI.create("http://localhost:" + ((WebServerApplicationContext) app).getWebServer().getPort()), data, writePercent);
+            // lets the JIT compile the hot paths before anything is measured
+            FixedRateLoad.run(client, workload::next, rate, warmup);
+            result = FixedRateLoad.run(client, workload::next, rate, duration);
+        }
+
+        System.out.printf("%d%% writes, %s%n", writePercent, result);
+        result.operations().forEach((operation, latencies) -> System.out.printf("  %-14s %s%n", operation, latencies));
+        writeDistributions(reportDir, result);
+
+        if (result.failed() > 0 || result.p99().compareTo(p99Limit) > 0) {
+            System.out.printf("FAILED: p99 must be within %d ms without failed requests%n", p99Limit.toMillis());
+            System.exit(1);
+        }
+    }
+
+    private static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(TaskManagerApp.class)
+                .properties(
+                        "server.port=0",
+                        "logging.level.root=WARN")
+                .run();
+    }
+
+    private static void writeDistributions(Path reportDir, FixedRateLoad.Result result) throws Exception {
+        Files.createDirectories(reportDir);
+        write(reportDir.resolve("all.hgrm"), result.all());
+        for (Map.Entry<String, FixedRateLoad.Latencies> operation : result.operations().entrySet()) {
+            write(reportDir.resolve(operation.getKey() + ".hgrm"), operation.getValue());
+        }
+        System.out.println("Latency distributions written to " + reportDir.toAbsolutePath());
+    }
+
+    private static void write(Path file, FixedRateLoad.Latencies latencies) throws FileNotFoundException {
+        try (var out = new PrintStream(file.toFile())) {
+            // in milliseconds, as expected by the HdrHistogram plotter
+            latencies.histogram().outputPercentileDistribution(out, 1_000_000.0);
+        }
+    }
+
+    private FixedRateLoad.Request next() {
+        final var random = ThreadLocalRandom.current();
+        final var operations = random.nextInt(100) < writePercent ? writes : reads;
+        int remaining = random.nextInt(operations.stream().mapToInt(Operation::weight).sum());
+        for (var operation : operations) {
+            remaining -= operation.weight();
+            if (remaining < 0) {
+                return new FixedRateLoad.Request(operation.name(), operation.request().apply(random));
+            }
+        }
+        throw new IllegalStateException("Weights of " + operations + " don't add up");
+    }
+
+    private HttpRequest findTasks(Random random) {
+        final var filter = switch (random.nextInt(3)) {
+            case 0 -> "taskStatus=" + pick(random, List.of(TaskStatus.values()));
+            case 1 -> "title=" + pick(random, WORDS);
+            default -> "assignedUserId=" + popularUser(random).id();
+        };
+        return get("/api/tasks?" + filter + "&page=" + random.nextInt(5) + "&size=20");
+    }
+
+    private HttpRequest addTask(Random random) {
+        final var assignees = new StringBuilder();
+        for (int i = random.nextInt(3); i > 0; i--) {
+            assignees.append(assignees.isEmpty() ? "" : ",").append('"').append(popularUser(random).id()).append('"');
+        }
+        return json("POST", "/api/tasks", String.format(
+                "{\"title\":\"%s %s\",\"description\":\"Created under load\",\"deadline\":\"%s\",\"users\":[%s]}",
+                pick(random, WORDS), pick(random, WORDS), LocalDateTime.now().plusDays(1 + random.nextInt(30)), assignees));
+    }
+
+    private TaskId anyTask(Random random) {
+        return data.tasks().get(random.nextInt(data.tasks().size()));
+    }
+
+    private UserId popularUser(Random random) {
+        return data.users().get(userPopularity.next(random));
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(baseUri.resolve(path)).GET().build();
+    }
+
+    private HttpRequest json(String method, String path, String body) {
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static <T> T pick(Random random, List<T> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+}
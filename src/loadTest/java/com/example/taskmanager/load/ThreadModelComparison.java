@@ -0,0 +1,110 @@
+package com.example.taskmanager.load;
+
+import com.example.taskmanager.TaskManagerApp;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Finds the highest request rate each thread model sustains while keeping the p99 latency and error rate in bounds:
+ * the app is started once with platform request threads and once with virtual ones, seeded with tasks
+ * and then searched at increasing fixed rates until the p99 exceeds the limit.
+ * <p>
+ * Configured by system properties, e.g. {@code ./gradlew loadTest -Ploadtest.rates=500,1000,2000 -Ploadtest.p99Millis=50}:
+ * {@code loadtest.rates}, {@code loadtest.stepSeconds}, {@code loadtest.p99Millis} and {@code loadtest.tasks}.
+ */
+public final class ThreadModelComparison {
+
+    private static final int SEED_BATCH_SIZE = 500;
+    private static final List<String> WORDS = List.of("login", "bug", "release", "report", "invoice", "deploy", "backup", "review");
+
+    private ThreadModelComparison() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        final var rates = Arrays.stream(System.getProperty("loadtest.rates", "250,500,1000,2000,4000,8000").split(","))
+                .map(String::strip)
+                .mapToInt(Integer::parseInt)
+                .toArray();
+        final var step = Duration.ofSeconds(Long.getLong("loadtest.stepSeconds", 10));
+        final var p99Limit = Duration.ofMillis(Long.getLong("loadtest.p99Millis", 50));
+        final var tasks = Integer.getInteger("loadtest.tasks", 10_000);
+
+        final var summary = new StringBuilder();
+        for (boolean virtualThreads : List.of(false, true)) {
+            final var mode = virtualThreads ? "virtual threads" : "platform threads";
+            System.out.println("== " + mode);
+            try (var app = start(virtualThreads);
+                 var client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build()) {
+                final var baseUri = URI.create("http://localhost:" + ((WebServerApplicationContext) app).getWebServer().getPort());
+                seed(client, baseUri, tasks);
+                // lets the JIT compile the hot paths before anything is measured
+                FixedRateLoad.run(client, () -> searchRequest(baseUri), rates[0], step);
+
+                int sustained = 0;
+                for (int rate : rates) {
+                    final var result = FixedRateLoad.run(client, () -> searchRequest(baseUri), rate, step);
+                    System.out.println(result);
+                    if (result.failed() > 0 || result.p99().compareTo(p99Limit) > 0) {
+                        break;
+                    }
+                    sustained = rate;
+                }
+                summary.append(String.format("%-16s max sustained %d req/s at p99 <= %d ms%n", mode, sustained, p99Limit.toMillis()));
+            }
+        }
+        System.out.print(summary);
+    }
+
+    private static ConfigurableApplicationContext start(boolean virtualThreads) {
+        return new SpringApplicationBuilder(TaskManagerApp.class)
+                .properties(
+                        "server.port=0",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        // a fresh database per run, so that both modes search the same data
+                        "spring.datasource.url=jdbc:h2:mem:loadtest-" + virtualThreads,
+                        "logging.level.root=WARN")
+                .run();
+    }
+
+    private static void seed(HttpClient client, URI baseUri, int tasks) throws IOException, InterruptedException {
+        for (int from = 0; from < tasks; from += SEED_BATCH_SIZE) {
+            final var body = IntStream.range(from, Math.min(from + SEED_BATCH_SIZE, tasks))
+                    .mapToObj(i -> String.format("{\"title\":\"%s %s %d\",\"description\":\"Seeded task %d\",\"users\":[]}",
+                            word(i), word(i / WORDS.size()), i, i))
+                    .collect(Collectors.joining(",", "[", "]"));
+            final var response = client.send(HttpRequest.newBuilder(baseUri.resolve("/api/tasks/batch"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build(), HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Seeding tasks failed with status " + response.statusCode());
+            }
+        }
+    }
+
+    private static FixedRateLoad.Request searchRequest(URI baseUri) {
+        final var random = ThreadLocalRandom.current();
+        return new FixedRateLoad.Request("findTasks", HttpRequest.newBuilder(baseUri.resolve("/api/tasks?title="
+                        + word(random.nextInt(WORDS.size())) + "&page=" + random.nextInt(10) + "&size=20"))
+                .GET()
+                .build());
+    }
+
+    private static String word(int index) {
+        return WORDS.get(index % WORDS.size());
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.taskmanager.api;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.RecordComponent;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.stream.Collectors;
+
+/**
+ * Writes the records of an export to the response one per line, either as JSON (NDJSON) or as CSV with a header row
+ * naming the record components. The output is flushed every {@value #FLUSH_INTERVAL} records, so clients receive
+ * records while later ones are still being read. Once the first record is written the status can't change anymore,
+ * a failing export ends in a truncated response.
+ */
+public final class ExportWriter<T extends Record> implements Closeable {
+
+    public static final int FLUSH_INTERVAL = 1000;
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public static Format of(String name) {
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(name)) {
+                    return format;
+                }
+            }
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown export format " + name + ", expected ndjson or csv");
+        }
+    }
+
+    private final Writer out;
+    private final Format format;
+    private final ObjectWriter json;
+    private final RecordComponent[] columns;
+    private long written;
+
+    private ExportWriter(Writer out, Format format, ObjectWriter json, RecordComponent[] columns) {
+        this.out = out;
+        this.format = format;
+        this.json = json;
+        this.columns = columns;
+    }
+
+    /**
+     * Sets the content type and starts the body, writing the CSV header if needed. An unknown format is rejected
+     * with a 400 before anything is written.
+     */
+    public static <T extends Record> ExportWriter<T> start(HttpServletResponse response,
+                                                           String format,
+                                                           Class<T> type,
+                                                           String filename,
+                                                           ObjectMapper objectMapper) throws IOException {
+        final var exportFormat = Format.of(format);
+        response.setContentType(exportFormat.contentType);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(filename + "." + exportFormat.extension)
+                .build()
+                .toString());
+        final var out = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+        // the writer is flushed per interval and must stay open between records
+        final var json = objectMapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        final var writer = new ExportWriter<T>(out, exportFormat, json, type.getRecordComponents());
+        if (exportFormat == Format.CSV) {
+            writer.writeCsvRow(writer.headerRow());
+        }
+        return writer;
+    }
+
+    public void write(T record) throws IOException {
+        if (format == Format.NDJSON) {
+            json.writeValue(out, record);
+            out.write('\n');
+        } else {
+            final var values = new Object[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                try {
+                    values[i] = columns[i].getAccessor().invoke(record);
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException("Cannot read " + columns[i].getName() + " of " + record, e);
+                }
+            }
+            writeCsvRow(values);
+        }
+        if (++written % FLUSH_INTERVAL == 0) {
+            out.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.flush();
+    }
+
+    private Object[] headerRow() {
+        final var names = new Object[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            names[i] = columns[i].getName();
+        }
+        return names;
+    }
+
+    private void writeCsvRow(Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            out.write(csvField(values[i]));
+        }
+        out.write("\r\n");
+    }
+
+    /**
+     * Collections become a space separated list; fields with separators, quotes or line breaks are quoted (RFC 4180).
+     */
+    private static String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        final var text = value instanceof Collection<?> values
+                ? values.stream().map(String::valueOf).collect(Collectors.joining(" "))
+                : value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
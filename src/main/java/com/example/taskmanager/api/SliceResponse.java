@@ -0,0 +1,19 @@
+package com.example.taskmanager.api;
+
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+
+/**
+ * JSON representation of a page without a total count.
+ */
+public record SliceResponse<T>(
+        List<T> content,
+        int number,
+        int size,
+        boolean hasNext
+) {
+    public static <T> SliceResponse<T> of(Slice<T> slice) {
+        return new SliceResponse<>(slice.getContent(), slice.getNumber(), slice.getSize(), slice.hasNext());
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.taskmanager.api.tasks;
+
+/**
+ * Outcome of a change applied to many tasks at once.
+ */
+public record BulkChangeResponse(int affectedTasks) {
+}
@@ -0,0 +1,16 @@
+package com.example.taskmanager.api.tasks;
+
+import com.example.taskmanager.domain.TaskStatus;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Selects the tasks either by {@code taskIds} or by a {@code filter} with at least one criterion, exactly one of them has to be given.
+ */
+public record BulkStatusChangeRequest(
+        List<UUID> taskIds,
+        TaskFilter filter,
+        TaskStatus status
+) {
+}
@@ -0,0 +1,12 @@
+package com.example.taskmanager.api.tasks;
+
+/**
+ * Per-item result of a batch creation, {@code status} mirrors the HTTP status the single-task endpoint would have returned.
+ */
+public record TaskBatchItemResponse(
+        int index,
+        String id,
+        int status,
+        String error
+) {
+}
@@ -1,46 +1,76 @@
 package com.example.taskmanager.api.tasks;
 
+import com.example.taskmanager.api.ExportWriter;
+import com.example.taskmanager.api.SliceResponse;
 import com.example.taskmanager.domain.Task;
 import com.example.taskmanager.domain.TaskId;
 import com.example.taskmanager.domain.TaskStatus;
 import com.example.taskmanager.domain.UserId;
 import com.example.taskmanager.service.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
 import java.net.URI;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/tasks")
 public class TaskController {
 
     private final TaskService service;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
 
-    public TaskController(TaskService service) {
+    public TaskController(TaskService service, ObjectMapper objectMapper, Validator validator) {
         this.service = service;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
     }
 
+    /**
+     * Tagged with the task version, a request with a matching {@code If-None-Match} gets a 304 without body.
+     */
     @GetMapping("/{taskId}")
-    public TaskResponse findById(@PathVariable String taskId) {
+    public ResponseEntity<TaskResponse> findById(@PathVariable String taskId) {
         UUID uuid;
         try {
              uuid = UUID.fromString(taskId);
         } catch (IllegalArgumentException e) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
         }
-        return service.findById(new TaskId(uuid))
-                .map(toResponse())
+        final var task = service.findById(new TaskId(uuid))
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        return ResponseEntity.ok()
+                .eTag(String.valueOf(task.getVersion()))
+                .lastModified(task.getLastModified())
+                .body(toResponse().apply(task));
     }
 
+    /**
+     * Tagged with the version of all tasks (headers are set by {@link WebRequest#checkNotModified}),
+     * so a request with a matching {@code If-None-Match} gets a 304 without the search being run.
+     */
     @GetMapping
     public Page<TaskResponse> findTasks(
             @RequestParam(required = false) String title,
@@ -49,8 +79,12 @@ public class TaskController {
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime deadlineFrom,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime deadlineTo,
             @RequestParam(required = false) UserId assignedUserId,
-            Pageable pageable) {
-        
+            Pageable pageable,
+            WebRequest request) {
+        if (notModified(request)) {
+            return null;
+        }
+
         final var params = new TaskSearchParams(
             title, description, taskStatus,
             deadlineFrom, deadlineTo, assignedUserId
@@ -59,7 +93,112 @@ public class TaskController {
         return service.findTasks(params, pageable).map(toResponse());
     }
 
-    private static Function<Task, TaskResponse> toResponse() {
+    /**
+     * Ranked full-text search over titles and descriptions backed by an in-memory index, words may be given as prefixes.
+     */
+    @GetMapping("/search")
+    public Page<TaskResponse> searchTasks(@RequestParam("q") String query, Pageable pageable) {
+        return service.searchTasks(query, pageable).map(toResponse());
+    }
+
+    /**
+     * Search without the total count, opted into by passing {@code withTotal=false}. Saves the count query
+     * for clients which only need to know whether there is a next page. Tagged like {@link #findTasks}.
+     */
+    @GetMapping(params = {"withTotal=false", "!cursor"})
+    public SliceResponse<TaskResponse> findTasksWithoutTotal(
+            @RequestParam(required = false) String title,
+            @RequestParam(required = false) String description,
+            @RequestParam(required = false) TaskStatus taskStatus,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime deadlineFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime deadlineTo,
+            @RequestParam(required = false) UserId assignedUserId,
+            Pageable pageable,
+            WebRequest request) {
+        if (notModified(request)) {
+            return null;
+        }
+
+        final var params = new TaskSearchParams(
+            title, description, taskStatus,
+            deadlineFrom, deadlineTo, assignedUserId
+        );
+
+        return SliceResponse.of(service.findTaskSlice(params, pageable).map(toResponse()));
+    }
+
+    /**
+     * Keyset paginated search, opted into by passing a {@code cursor} (empty for the first page).
+     * Follow-up pages are requested with the {@code nextCursor} of the previous response; latency doesn't grow with depth
+     * and no total count is computed. Tagged like {@link #findTasks}.
+     */
+    @GetMapping(params = "cursor")
+    public CursorPage<TaskResponse> findTasksByCursor(
+            @RequestParam(required = false) String title,
+            @RequestParam(required = false) String description,
+            @RequestParam(required = false) TaskStatus taskStatus,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime deadlineFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime deadlineTo,
+            @RequestParam(required = false) UserId assignedUserId,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            Sort sort,
+            WebRequest request) {
+        if (size < 1 || size > Task.MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Page size must be between 1 and " + Task.MAX_PAGE_SIZE);
+        }
+        if (notModified(request)) {
+            return null;
+        }
+        final var params = new TaskSearchParams(
+            title, description, taskStatus,
+            deadlineFrom, deadlineTo, assignedUserId
+        );
+
+        try {
+            return service.findTasks(params, cursor, size, sort).map(toResponse());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * All tasks matching the filters with their assignees, as NDJSON or, with {@code format=csv}, as CSV.
+     * Tasks are written while they are read from the database, so unlike paging through the search the filter runs
+     * once, nothing is counted and memory use doesn't depend on the number of tasks.
+     */
+    @GetMapping("/export")
+    public void exportTasks(
+            @RequestParam(required = false) String title,
+            @RequestParam(required = false) String description,
+            @RequestParam(required = false) TaskStatus taskStatus,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime deadlineFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime deadlineTo,
+            @RequestParam(required = false) UserId assignedUserId,
+            @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletResponse response) throws IOException {
+        final var params = new TaskSearchParams(
+            title, description, taskStatus,
+            deadlineFrom, deadlineTo, assignedUserId
+        );
+
+        final var toResponse = toResponse();
+        try (var writer = ExportWriter.start(response, format, TaskResponse.class, "tasks", objectMapper)) {
+            service.exportTasks(params, task -> writer.write(toResponse.apply(task)));
+        }
+    }
+
+    /**
+     * Sets the version of all tasks as ETag and Last-Modified of a search response.
+     *
+     * @return whether the client's copy is still current, so that the search can be skipped
+     */
+    private boolean notModified(WebRequest request) {
+        final var version = service.tasksVersion();
+        return request.checkNotModified(version.tag(), version.lastModified().toEpochMilli());
+    }
+
+    static Function<Task, TaskResponse> toResponse() {
         return task -> new TaskResponse(
                 task.getId().id().toString(),
                 task.getTitle(),
@@ -73,8 +212,7 @@ public class TaskController {
     @PostMapping
     public ResponseEntity<TaskResponse> addTask(@RequestBody TaskCreationRequest request) {
         final var taskId = TaskId.generate();
-        final var userIds = request.users().stream().map(UserId::new).toList();
-        final var task = Task.create(taskId, request.title(), request.description(), request.deadline(), userIds);
+        final var task = toTask(taskId, request);
 
         try {
             service.addTask(task);
@@ -87,52 +225,195 @@ public class TaskController {
         return ResponseEntity.created(URI.create("/api/tasks/" + taskId.id().toString())).build();
     }
 
+    /**
+     * Every task is validated before the batch is stored, so a task that is invalid, e.g. with a too long title,
+     * gets its own 400 and the others are still created.
+     */
+    @PostMapping("/batch")
+    public List<TaskBatchItemResponse> addTasks(@RequestBody List<TaskCreationRequest> requests) {
+        final var results = new TaskBatchItemResponse[requests.size()];
+        final var tasks = new ArrayList<Task>(requests.size());
+        final var taskIndexes = new ArrayList<Integer>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            final var taskId = TaskId.generate();
+            try {
+                final var task = toTask(taskId, requests.get(i));
+                final var violations = validator.validate(task);
+                if (violations.isEmpty()) {
+                    tasks.add(task);
+                    taskIndexes.add(i);
+                } else {
+                    results[i] = new TaskBatchItemResponse(i, taskId.id().toString(), HttpStatus.BAD_REQUEST.value(), describe(violations));
+                }
+            } catch (IllegalArgumentException e) {
+                results[i] = new TaskBatchItemResponse(i, taskId.id().toString(), HttpStatus.BAD_REQUEST.value(), e.getMessage());
+            }
+        }
+
+        final List<TaskBatchOutcome> outcomes;
+        try {
+            outcomes = service.addTasks(tasks);
+        } catch (DomainObjectValidationException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        for (int i = 0; i < outcomes.size(); i++) {
+            final int index = taskIndexes.get(i);
+            final var outcome = outcomes.get(i);
+            final var status = outcome.isCreated() ? HttpStatus.CREATED : HttpStatus.NOT_FOUND;
+            results[index] = new TaskBatchItemResponse(index, outcome.taskId().id().toString(), status.value(), outcome.error());
+        }
+        return List.of(results);
+    }
+
+    private static Task toTask(TaskId taskId, TaskCreationRequest request) {
+        final var userIds = Optional.ofNullable(request.users())
+                .map(uuids -> uuids.stream().map(UserId::new).toList())
+                .orElse(List.of());
+        return Task.create(taskId, request.title(), request.description(), request.deadline(), userIds);
+    }
+
+    private static String describe(Set<ConstraintViolation<Task>> violations) {
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Moves many tasks to a status at once, selected either by id or by a non-empty search filter. Runs as set-based
+     * updates without loading the tasks; those missing or already at the status are not counted.
+     */
+    @PatchMapping("/status")
+    public BulkChangeResponse changeStatusOfTasks(@RequestBody BulkStatusChangeRequest request) {
+        if (request.status() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Status is required");
+        }
+        if ((request.taskIds() == null) == (request.filter() == null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Either taskIds or filter has to be given");
+        }
+        if (request.filter() != null && request.filter().isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Filter needs at least one criterion");
+        }
+        final var changed = request.taskIds() != null
+                ? service.changeStatusOfAll(toTaskIds(request.taskIds()), request.status())
+                : service.changeStatusOfMatching(request.filter().toSearchParams(), request.status());
+        return new BulkChangeResponse(changed);
+    }
+
+    /**
+     * Changes only a task still at the version given by {@code If-Match} (the ETag of {@link #findById}), if present.
+     */
     @PatchMapping("/{taskId}/status")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void changeTaskStatus(
             @PathVariable String taskId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @RequestBody TaskStatusChangeRequest request) {
+        final var expectedVersion = expectedVersion(ifMatch);
         try {
             final var id = UUID.fromString(taskId);
-            service.changeStatus(new TaskId(id), request.status());
+            service.changeStatus(new TaskId(id), request.status(), expectedVersion);
         } catch (TaskNotFoundException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (TaskVersionMismatchException e) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, e.getMessage());
         }
     }
 
+    /**
+     * Assigns only to a task still at the version given by {@code If-Match}, if present.
+     */
     @PatchMapping("/{taskId}/assign")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void assignUsersToTask(
             @PathVariable String taskId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @RequestBody UserAssignmentRequest request) {
+        final var expectedVersion = expectedVersion(ifMatch);
         try {
             final var userIds = request.userIds().stream()
                     .map(userId -> new UserId(UUID.fromString(userId)))
                     .toList();
             final var id = UUID.fromString(taskId);
-            service.assignUsers(new TaskId(id), userIds);
+            service.assignUsers(new TaskId(id), userIds, expectedVersion);
         } catch (TaskNotFoundException | UserNotFoundException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (TaskVersionMismatchException e) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, e.getMessage());
         } catch (IllegalArgumentException e) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
         }
     }
 
+    /**
+     * Edits only a task still at the version given by {@code If-Match}, if present. A concurrent edit makes it fail
+     * with a 412 if the header was given and with a 409 otherwise, instead of silently overwriting the other change.
+     */
     @PutMapping("/{taskId}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void editTask(
             @PathVariable String taskId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @RequestBody EditTaskRequest request) {
+        final var expectedVersion = expectedVersion(ifMatch);
         try {
             final var id = UUID.fromString(taskId);
-            service.editTask(new TaskId(id), request.toDto());
+            service.editTask(new TaskId(id), request.toDto(), expectedVersion);
         } catch (TaskNotFoundException | UserNotFoundException e) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        } catch (TaskVersionMismatchException e) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, e.getMessage());
+        } catch (OptimisticLockingFailureException e) {
+            final var status = expectedVersion == null ? HttpStatus.CONFLICT : HttpStatus.PRECONDITION_FAILED;
+            throw new ResponseStatusException(status, "Task was changed concurrently");
         } catch (IllegalArgumentException | DomainObjectValidationException e) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
         }
     }
 
+    /**
+     * @return task version required by the {@code If-Match} header, {@code null} if there is none or it is {@code *}
+     */
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.strip().equals("*")) {
+            return null;
+        }
+        final var tag = ifMatch.strip();
+        // only the strong tags handed out by findById can ever match
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.parseLong(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException ignored) {
+                // falls through to the failed precondition
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "If-Match doesn't match any version of the task");
+    }
+
+    /**
+     * Deletes many tasks at once, selected either by id or by a non-empty search filter, without loading them.
+     */
+    @DeleteMapping
+    public BulkChangeResponse deleteTasks(@RequestBody BulkDeleteRequest request) {
+        if ((request.taskIds() == null) == (request.filter() == null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Either taskIds or filter has to be given");
+        }
+        if (request.filter() != null && request.filter().isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Filter needs at least one criterion");
+        }
+        final var deleted = request.taskIds() != null
+                ? service.deleteTasks(toTaskIds(request.taskIds()))
+                : service.deleteMatchingTasks(request.filter().toSearchParams());
+        return new BulkChangeResponse(deleted);
+    }
+
+    private static List<TaskId> toTaskIds(List<UUID> uuids) {
+        if (uuids.contains(null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Task ids cannot be null");
+        }
+        return uuids.stream().map(TaskId::new).toList();
+    }
+
     @DeleteMapping("/{taskId}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void deleteTask(@PathVariable String taskId) {
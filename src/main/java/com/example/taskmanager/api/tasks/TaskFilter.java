@@ -0,0 +1,32 @@
+package com.example.taskmanager.api.tasks;
+
+import com.example.taskmanager.domain.TaskStatus;
+import com.example.taskmanager.domain.UserId;
+import com.example.taskmanager.service.TaskSearchParams;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Selects tasks by the same criteria as the search parameters of {@code GET /api/tasks}, all of them optional.
+ */
+public record TaskFilter(
+        String title,
+        String description,
+        TaskStatus taskStatus,
+        LocalDateTime deadlineFrom,
+        LocalDateTime deadlineTo,
+        UUID assignedUserId
+) {
+    public boolean isEmpty() {
+        return title == null && description == null && taskStatus == null
+                && deadlineFrom == null && deadlineTo == null && assignedUserId == null;
+    }
+
+    public TaskSearchParams toSearchParams() {
+        return new TaskSearchParams(
+                title, description, taskStatus,
+                deadlineFrom, deadlineTo, assignedUserId == null ? null : new UserId(assignedUserId)
+        );
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.taskmanager.api.tasks;
+
+import com.example.taskmanager.domain.TaskStatus;
+import com.example.taskmanager.domain.UserId;
+import com.example.taskmanager.service.TaskService;
+import com.example.taskmanager.service.UserNotFoundException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.UUID;
+
+/**
+ * Tasks of a single user, the "my tasks" inbox.
+ */
+@RestController
+@RequestMapping("/api/users/{userId}/tasks")
+public class UserTasksController {
+
+    private final TaskService service;
+
+    public UserTasksController(TaskService service) {
+        this.service = service;
+    }
+
+    /**
+     * Tasks assigned to the user ordered by deadline, optionally filtered by status. Sorting params are ignored.
+     */
+    @GetMapping
+    public Page<TaskResponse> findTasksOfUser(@PathVariable String userId,
+                                              @RequestParam(required = false) TaskStatus taskStatus,
+                                              Pageable pageable) {
+        UUID uuid;
+        try {
+            uuid = UUID.fromString(userId);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        try {
+            return service.findTasksOfUser(new UserId(uuid), taskStatus, pageable).map(TaskController.toResponse());
+        } catch (UserNotFoundException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, e.getMessage());
+        }
+    }
+}
@@ -1,50 +1,98 @@
 package com.example.taskmanager.api.users;
 
+import com.example.taskmanager.api.ExportWriter;
+import com.example.taskmanager.api.SliceResponse;
 import com.example.taskmanager.domain.User;
 import com.example.taskmanager.domain.UserId;
+import com.example.taskmanager.service.CursorPage;
 import com.example.taskmanager.service.DomainObjectValidationException;
 import com.example.taskmanager.service.UserSearchParams;
 import com.example.taskmanager.service.UserService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/users")
 public class UserController {
 
+    private static final int MAX_REPORTED_IMPORT_ERRORS = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_SUGGESTIONS = 50;
+
     private final UserService service;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final int importChunkSize;
 
-    public UserController(UserService service) {
+    public UserController(UserService service,
+                          ObjectMapper objectMapper,
+                          Validator validator,
+                          @Value("${taskmanager.users.import.chunk-size:1000}") int importChunkSize) {
         this.service = service;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.importChunkSize = importChunkSize;
     }
 
+    /**
+     * Tagged with the user version, a request with a matching {@code If-None-Match} gets a 304 without body.
+     */
     @GetMapping("/{userId}")
-    public UserResponse findUser(@PathVariable String userId) {
+    public ResponseEntity<UserResponse> findUser(@PathVariable String userId) {
         UUID uuid;
         try {
             uuid = UUID.fromString(userId);
         } catch (IllegalArgumentException e) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
         }
-        return service.findUserById(new UserId(uuid))
-                .map(toResponse())
+        final var user = service.findUserById(new UserId(uuid))
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        return ResponseEntity.ok()
+                .eTag(String.valueOf(user.getVersion()))
+                .lastModified(user.getLastModified())
+                .body(toResponse().apply(user));
     }
 
+    /**
+     * Tagged with the version of all users (headers are set by {@link WebRequest#checkNotModified}),
+     * so a request with a matching {@code If-None-Match} gets a 304 without the search being run.
+     */
     @GetMapping
     public Page<UserResponse> findUsers(
             @RequestParam(required = false) String firstName,
             @RequestParam(required = false) String lastName,
             @RequestParam(required = false) String email,
-            Pageable pageable) {
+            Pageable pageable,
+            WebRequest request) {
+        if (notModified(request)) {
+            return null;
+        }
 
         final var params = new UserSearchParams(
             firstName, lastName, email
@@ -53,6 +101,105 @@ public class UserController {
         return service.findUsers(params, pageable).map(toResponse());
     }
 
+    /**
+     * Search without the total count, opted into by passing {@code withTotal=false}. Saves the count query
+     * for clients which only need to know whether there is a next page. Tagged like {@link #findUsers}.
+     */
+    @GetMapping(params = {"withTotal=false", "!cursor"})
+    public SliceResponse<UserResponse> findUsersWithoutTotal(
+            @RequestParam(required = false) String firstName,
+            @RequestParam(required = false) String lastName,
+            @RequestParam(required = false) String email,
+            Pageable pageable,
+            WebRequest request) {
+        if (notModified(request)) {
+            return null;
+        }
+
+        final var params = new UserSearchParams(
+            firstName, lastName, email
+        );
+
+        return SliceResponse.of(service.findUserSlice(params, pageable).map(toResponse()));
+    }
+
+    /**
+     * All users matching the filters, as NDJSON or, with {@code format=csv}, as CSV, written while they are read
+     * from the database, so memory use doesn't depend on the number of users.
+     */
+    @GetMapping("/export")
+    public void exportUsers(
+            @RequestParam(required = false) String firstName,
+            @RequestParam(required = false) String lastName,
+            @RequestParam(required = false) String email,
+            @RequestParam(defaultValue = "ndjson") String format,
+            HttpServletResponse response) throws IOException {
+        final var params = new UserSearchParams(
+            firstName, lastName, email
+        );
+
+        final var toResponse = toResponse();
+        try (var writer = ExportWriter.start(response, format, UserResponse.class, "users", objectMapper)) {
+            service.exportUsers(params, user -> writer.write(toResponse.apply(user)));
+        }
+    }
+
+    /**
+     * Keyset paginated search, opted into by passing a {@code cursor} (empty for the first page).
+     * Follow-up pages are requested with the {@code nextCursor} of the previous response; latency doesn't grow with depth
+     * and no total count is computed. Tagged like {@link #findUsers}.
+     */
+    @GetMapping(params = "cursor")
+    public CursorPage<UserResponse> findUsersByCursor(
+            @RequestParam(required = false) String firstName,
+            @RequestParam(required = false) String lastName,
+            @RequestParam(required = false) String email,
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            Sort sort,
+            WebRequest request) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (notModified(request)) {
+            return null;
+        }
+        final var params = new UserSearchParams(
+            firstName, lastName, email
+        );
+
+        try {
+            return service.findUsers(params, cursor, size, sort).map(toResponse());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Type-ahead lookup matching the query anywhere in the full name or email (prefixes only for one or two
+     * characters), returning just enough to render a picker.
+     */
+    @GetMapping("/suggest")
+    public List<UserSuggestionResponse> suggestUsers(@RequestParam String q,
+                                                     @RequestParam(defaultValue = "10") int limit) {
+        if (limit < 1 || limit > MAX_SUGGESTIONS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Limit must be between 1 and " + MAX_SUGGESTIONS);
+        }
+        return service.suggestUsers(q, limit).stream()
+                .map(suggestion -> new UserSuggestionResponse(suggestion.userId().id().toString(), suggestion.displayName()))
+                .toList();
+    }
+
+    /**
+     * Sets the version of all users as ETag and Last-Modified of a search response.
+     *
+     * @return whether the client's copy is still current, so that the search can be skipped
+     */
+    private boolean notModified(WebRequest request) {
+        final var version = service.usersVersion();
+        return request.checkNotModified(version.tag(), version.lastModified().toEpochMilli());
+    }
+
     private static Function<User, UserResponse> toResponse() {
         return user -> new UserResponse(
                 user.getId().id().toString(),
@@ -72,6 +219,95 @@ public class UserController {
         return ResponseEntity.created(URI.create("/api/users/" + userId.id().toString())).build();
     }
 
+    /**
+     * Imports users from a newline-delimited JSON body (one {@link AddUserRequest} per line).
+     * The body is read line by line and stored in chunks, so memory use doesn't depend on the size of the upload.
+     * Every line is validated while parsing, a line that still fails to store only rejects itself and not its chunk.
+     */
+    @PostMapping(path = "/import", consumes = {"application/x-ndjson", MediaType.APPLICATION_JSON_VALUE})
+    public UserImportResponse importUsers(InputStream body) throws IOException {
+        final var reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        final var chunk = new ArrayList<User>(importChunkSize);
+        final var chunkLines = new ArrayList<Long>(importChunkSize);
+        final var errors = new ArrayList<UserImportResponse.UserImportError>();
+        long accepted = 0;
+        long rejected = 0;
+        long lineNumber = 0;
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                final var request = objectMapper.readValue(line, AddUserRequest.class);
+                if (request == null) {
+                    throw new IllegalArgumentException("User record cannot be null");
+                }
+                final var user = User.create(UserId.generate(), request.firstName(), request.lastName(), request.email());
+                final var violations = validator.validate(user);
+                if (violations.isEmpty()) {
+                    chunk.add(user);
+                    chunkLines.add(lineNumber);
+                } else {
+                    rejected++;
+                    reportImportError(errors, lineNumber, describe(violations));
+                }
+            } catch (JsonProcessingException | IllegalArgumentException e) {
+                rejected++;
+                reportImportError(errors, lineNumber, e.getMessage());
+            }
+            if (chunk.size() == importChunkSize) {
+                final var stored = storeImportChunk(chunk, chunkLines, errors);
+                accepted += stored;
+                rejected += chunk.size() - stored;
+                chunk.clear();
+                chunkLines.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            final var stored = storeImportChunk(chunk, chunkLines, errors);
+            accepted += stored;
+            rejected += chunk.size() - stored;
+        }
+        return new UserImportResponse(accepted, rejected, errors);
+    }
+
+    private int storeImportChunk(List<User> chunk, List<Long> chunkLines, List<UserImportResponse.UserImportError> errors) {
+        try {
+            service.addUsers(List.copyOf(chunk));
+            return chunk.size();
+        } catch (DomainObjectValidationException e) {
+            // the chunk was rolled back as a whole, storing its users one at a time finds the rows the database rejects
+            int stored = 0;
+            for (int i = 0; i < chunk.size(); i++) {
+                final var user = chunk.get(i);
+                try {
+                    // a fresh instance, the rolled back persist has already seeded the version of the old one
+                    service.addUsers(List.of(User.create(user.getId(), user.getFirstName(), user.getLastName(), user.getEmail())));
+                    stored++;
+                } catch (DomainObjectValidationException rowFailure) {
+                    reportImportError(errors, chunkLines.get(i), rowFailure.getMessage());
+                }
+            }
+            return stored;
+        }
+    }
+
+    private static String describe(Set<ConstraintViolation<User>> violations) {
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private static void reportImportError(List<UserImportResponse.UserImportError> errors, long line, String message) {
+        if (errors.size() < MAX_REPORTED_IMPORT_ERRORS) {
+            errors.add(new UserImportResponse.UserImportError(line, message));
+        }
+    }
+
     @DeleteMapping("/{userId}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void deleteUser(@PathVariable String userId) {
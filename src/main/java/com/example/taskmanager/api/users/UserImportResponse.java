@@ -0,0 +1,15 @@
+package com.example.taskmanager.api.users;
+
+import java.util.List;
+
+/**
+ * Summary of an import, {@code errors} holds only the first few rejected rows to keep the response bounded.
+ */
+public record UserImportResponse(
+        long accepted,
+        long rejected,
+        List<UserImportError> errors
+) {
+    public record UserImportError(long line, String message) {
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.taskmanager.api.users;
+
+public record UserSuggestionResponse(
+        String id,
+        String displayName
+) {
+}
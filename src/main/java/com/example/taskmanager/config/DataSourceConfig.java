@@ -0,0 +1,57 @@
+package com.example.taskmanager.config;
+
+import com.example.taskmanager.db.QueryInspectingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Separate connection pools for reads and writes, so that a storm of searches can't take all connections
+ * from status updates. Read-only transactions get their connection from the read pool, which connects to
+ * {@code taskmanager.datasource.read.url} (a replica) or, if that's empty, to the primary database.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource writeDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("taskmanager.datasource.read.hikari")
+    public HikariDataSource readDataSource(DataSourceProperties properties,
+                                           @Value("${taskmanager.datasource.read.url:}") String url) {
+        final var dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        if (!url.isBlank()) {
+            dataSource.setJdbcUrl(url);
+        }
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    /**
+     * Picks the pool only once the first statement runs, by then a read-only transaction has marked the connection read-only.
+     * Statements of both pools are measured, and logged if slower than {@code taskmanager.datasource.slow-query-threshold}.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("writeDataSource") DataSource writeDataSource,
+                                 @Qualifier("readDataSource") DataSource readDataSource,
+                                 @Value("${taskmanager.datasource.slow-query-threshold:200ms}") Duration slowQueryThreshold,
+                                 QueryInspectingDataSource.Listener queryListener) {
+        final var dataSource = new LazyConnectionDataSourceProxy(writeDataSource);
+        dataSource.setReadOnlyDataSource(readDataSource);
+        return new QueryInspectingDataSource(dataSource, slowQueryThreshold, queryListener);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.taskmanager.config;
+
+import com.example.taskmanager.metrics.OperationMetricsAspect;
+import com.example.taskmanager.metrics.QueryMetrics;
+import com.example.taskmanager.metrics.SqlStatementCountFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Timers, counters and per-request summaries of the task manager's own operations and SQL statements, published with
+ * all other metrics on {@code /actuator/prometheus}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public OperationMetricsAspect operationMetricsAspect(MeterRegistry meterRegistry) {
+        return new OperationMetricsAspect(meterRegistry);
+    }
+
+    @Bean
+    public QueryMetrics queryMetrics(MeterRegistry meterRegistry) {
+        return new QueryMetrics(meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "taskmanager.metrics.statement-count-header", havingValue = "true", matchIfMissing = true)
+    public SqlStatementCountFilter sqlStatementCountFilter() {
+        return new SqlStatementCountFilter();
+    }
+}
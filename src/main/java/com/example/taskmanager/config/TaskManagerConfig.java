@@ -2,21 +2,85 @@ package com.example.taskmanager.config;
 
 import com.example.taskmanager.db.TaskRepository;
 import com.example.taskmanager.db.UserRepository;
+import com.example.taskmanager.search.TaskTextIndex;
+import com.example.taskmanager.search.UserSearchIndex;
+import com.example.taskmanager.service.KnownUserIds;
 import com.example.taskmanager.service.TaskService;
 import com.example.taskmanager.service.UserService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
 
+import java.time.Duration;
+
+// caching wraps transactions, so hits don't open one; only the operation metrics are outside of it
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE + 1)
+@EnableConfigurationProperties(CacheProperties.class)
 @Configuration
 public class TaskManagerConfig {
 
+    /**
+     * The Caffeine cache manager Boot would configure from {@code spring.cache}, made transaction-aware:
+     * puts and evictions made within a transaction are applied once it commits and dropped on rollback.
+     * That also covers evicting methods called within a caller's transaction, which the cache advice alone would
+     * apply before the caller commits, so a concurrent lookup could cache the old state again.
+     */
+    @Bean
+    public CacheManager cacheManager(CacheProperties cacheProperties) {
+        final var cacheManager = new CaffeineCacheManager();
+        if (cacheProperties.getCaffeine().getSpec() != null) {
+            cacheManager.setCacheSpecification(cacheProperties.getCaffeine().getSpec());
+        }
+        cacheManager.setCacheNames(cacheProperties.getCacheNames());
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+
+    @Bean
+    public UserService userService(UserRepository repository,
+                                   @Value("${taskmanager.search.count-cache-ttl:5s}") Duration countCacheTtl,
+                                   UserSearchIndex userSearchIndex,
+                                   KnownUserIds knownUserIds,
+                                   TaskService taskService) {
+        return new UserService(repository, countCacheTtl, userSearchIndex, knownUserIds, taskService);
+    }
+
+    @Bean
+    public TaskService taskService(TaskRepository taskRepository,
+                                   UserRepository userRepository,
+                                   @Value("${taskmanager.search.count-cache-ttl:5s}") Duration countCacheTtl,
+                                   TaskTextIndex taskTextIndex,
+                                   KnownUserIds knownUserIds) {
+        return new TaskService(taskRepository, userRepository, countCacheTtl, taskTextIndex, knownUserIds);
+    }
+
+    @Bean
+    public TaskTextIndex taskTextIndex() {
+        return new TaskTextIndex();
+    }
+
+    @Bean
+    public UserSearchIndex userSearchIndex() {
+        return new UserSearchIndex();
+    }
+
     @Bean
-    public UserService userService(UserRepository repository) {
-        return new UserService(repository);
+    public KnownUserIds knownUserIds() {
+        return new KnownUserIds();
     }
 
     @Bean
-    public TaskService taskService(TaskRepository taskRepository, UserRepository userRepository) {
-        return new TaskService(taskRepository, userRepository);
+    public ApplicationRunner searchIndexInitializer(TaskService taskService, UserService userService) {
+        return args -> {
+            taskService.rebuildTextIndex();
+            userService.rebuildIndexes();
+        };
     }
 }
@@ -0,0 +1,39 @@
+package com.example.taskmanager.config;
+
+import com.example.taskmanager.db.ConcurrencyLimitingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+
+/**
+ * Active with {@code spring.threads.virtual.enabled}, which serves requests and async work on virtual threads
+ * (see the {@code virtual-threads} profile).
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadsConfig {
+
+    /**
+     * Puts each connection pool behind a fair limit of its size.
+     */
+    @Bean
+    static BeanPostProcessor concurrencyLimitingDataSourcePostProcessor(Environment environment) {
+        final var acquireTimeout = environment.getProperty("taskmanager.datasource.acquire-timeout", Duration.class,
+                Duration.ofSeconds(30));
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource pool) {
+                    return new ConcurrencyLimitingDataSource(pool, pool.getMaximumPoolSize(), acquireTimeout);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.taskmanager.db;
+
+import java.util.Collection;
+
+/**
+ * Repository fragment for inserting many new entities at once.
+ * Unlike {@code saveAll} it never merges, so entities with assigned ids are not SELECTed before the insert
+ * and Hibernate can group the inserts into JDBC batches.
+ */
+public interface BatchInsertRepository<T> {
+
+    /**
+     * Persists all given entities, flushing and clearing the persistence context every JDBC batch.
+     * Must be called within a transaction; any other entities managed by the current persistence context get detached.
+     */
+    void insertAll(Collection<? extends T> entities);
+}
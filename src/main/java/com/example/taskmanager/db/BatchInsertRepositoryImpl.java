@@ -0,0 +1,37 @@
+package com.example.taskmanager.db;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.util.Collection;
+
+class BatchInsertRepositoryImpl<T> implements BatchInsertRepository<T> {
+
+    private final EntityManager entityManager;
+    private final int batchSize;
+
+    BatchInsertRepositoryImpl(EntityManager entityManager,
+                              @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize) {
+        this.entityManager = entityManager;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void insertAll(Collection<? extends T> entities) {
+        var pending = 0;
+        for (T entity : entities) {
+            entityManager.persist(entity);
+            if (++pending == batchSize) {
+                flushAndClear();
+                pending = 0;
+            }
+        }
+        flushAndClear();
+    }
+
+    private void flushAndClear() {
+        // keeps the persistence context (and so the heap) bounded by a single batch
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
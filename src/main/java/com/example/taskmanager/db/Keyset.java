@@ -0,0 +1,83 @@
+package com.example.taskmanager.db;
+
+import jakarta.persistence.EntityManager;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Position in a keyset (seek) pagination: the sort key and id of the last row already returned to the client.
+ * Rows are ordered by the sort property and then by id, so the position is unique even if sort keys repeat.
+ * Both go in the sort direction, so that a single index on (property, id) serves the order.
+ * An empty position (no {@code lastId}) denotes the first page.
+ */
+public record Keyset(String property, Sort.Direction direction, Object lastValue, UUID lastId) {
+
+    public static final String ID = "id";
+
+    public static Keyset first(String property, Sort.Direction direction) {
+        return new Keyset(property, direction, null, null);
+    }
+
+    public Keyset after(Object value, UUID id) {
+        return new Keyset(property, direction, value, id);
+    }
+
+    public boolean isFirst() {
+        return lastId == null;
+    }
+
+    void requireSortableBy(Set<String> sortableProperties) {
+        if (!sortableProperties.contains(property)) {
+            throw new IllegalArgumentException("Cannot page by " + property + ", supported properties are " + sortableProperties);
+        }
+    }
+
+    /**
+     * Reads up to {@code limit} rows matching the filter after this position, or from the first one for an empty position.
+     * Rows are ordered by the sort property and then by id, both in the sort direction, with nulls last. Every query
+     * seeks into an index on (property, id) instead of filtering and sorting all matching rows: rows with a value are
+     * skipped by a row value comparison, and the null tail is read by a separate query once they are exhausted.
+     *
+     * @param select JPQL selecting the entity as {@code alias}, e.g. {@code SELECT t FROM Task t}
+     */
+    <T> List<T> readNext(EntityManager entityManager, String select, String alias, Class<T> type, SearchFilter filter, int limit) {
+        final var id = alias + ".id.id";
+        final var comparison = direction.isAscending() ? ">" : "<";
+        if (ID.equals(property)) {
+            final var afterId = isFirst() ? filter : filter.copy().and(id + " " + comparison + " :lastId", "lastId", lastId);
+            return read(entityManager, select + afterId.where() + " ORDER BY " + id + " " + direction.name(), type, afterId, limit);
+        }
+
+        final var path = alias + "." + property;
+        final var orderBy = " ORDER BY " + path + " " + direction.name() + ", " + id + " " + direction.name();
+        final var rows = new ArrayList<T>(limit);
+        if (isFirst() || lastValue != null) {
+            final var withValue = isFirst()
+                    ? filter.copy().and(path + " IS NOT NULL")
+                    // the bound on the property alone follows from the row value comparison,
+                    // it is there for databases which only range scan an index by single column conditions
+                    : filter.copy()
+                            .and(path + " " + comparison + "= :lastValue", "lastValue", lastValue)
+                            .and("(" + path + ", " + id + ") " + comparison + " (:lastValue, :lastId)", "lastId", lastId);
+            rows.addAll(read(entityManager, select + withValue.where() + orderBy, type, withValue, limit));
+        }
+        if (rows.size() < limit) {
+            var nullTail = filter.copy().and(path + " IS NULL");
+            if (!isFirst() && lastValue == null) {
+                nullTail = nullTail.and(id + " " + comparison + " :lastId", "lastId", lastId);
+            }
+            rows.addAll(read(entityManager, select + nullTail.where() + orderBy, type, nullTail, limit - rows.size()));
+        }
+        return rows;
+    }
+
+    private static <T> List<T> read(EntityManager entityManager, String jpql, Class<T> type, SearchFilter filter, int limit) {
+        return filter.bind(entityManager.createQuery(jpql, type))
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
@@ -0,0 +1,238 @@
+package com.example.taskmanager.db;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+
+/**
+ * Times every statement run through its connections and counts the rows read from its results. Statements taking
+ * longer than the threshold are logged with their bound parameters and, for queries, the plan {@code EXPLAIN} gives
+ * for them. A query counts as done once its results were read to the end or closed, so the time includes fetching.
+ */
+public class QueryInspectingDataSource extends DelegatingDataSource {
+
+    /**
+     * Told about every statement once it is done.
+     */
+    @FunctionalInterface
+    public interface Listener {
+        void statementExecuted(String sql, Duration elapsed, long rows);
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(QueryInspectingDataSource.class);
+
+    private final Duration slowQueryThreshold;
+    private final Listener listener;
+
+    public QueryInspectingDataSource(DataSource target, Duration slowQueryThreshold, Listener listener) {
+        super(target);
+        this.slowQueryThreshold = slowQueryThreshold;
+        this.listener = listener;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return inspecting(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return inspecting(super.getConnection(username, password));
+    }
+
+    private Connection inspecting(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(
+                ConnectionProxy.class.getClassLoader(),
+                new Class<?>[]{ConnectionProxy.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "getTargetConnection" -> connection;
+                    case "prepareStatement" -> Proxy.newProxyInstance(
+                            PreparedStatement.class.getClassLoader(),
+                            new Class<?>[]{PreparedStatement.class},
+                            new InspectedStatement(connection, (Statement) invoke(connection, method, args), (String) args[0]));
+                    case "createStatement" -> Proxy.newProxyInstance(
+                            Statement.class.getClassLoader(),
+                            new Class<?>[]{Statement.class},
+                            new InspectedStatement(connection, (Statement) invoke(connection, method, args), null));
+                    default -> invoke(connection, method, args);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    /**
+     * One run of a statement, done once its results are read or closed.
+     */
+    private final class Execution {
+        private final Connection connection;
+        private final String sql;
+        private final Map<Integer, Object> parameters;
+        private final long start = System.nanoTime();
+        private long rows;
+        private boolean done;
+
+        private Execution(Connection connection, String sql, Map<Integer, Object> parameters) {
+            this.connection = connection;
+            this.sql = sql;
+            this.parameters = parameters;
+        }
+
+        void finish() {
+            if (done) {
+                return;
+            }
+            done = true;
+            final var elapsed = Duration.ofNanos(System.nanoTime() - start);
+            listener.statementExecuted(sql, elapsed, rows);
+            if (elapsed.compareTo(slowQueryThreshold) > 0) {
+                log.warn("Slow statement took {} ms and read {} rows: {}\n  parameters: {}\n  plan: {}",
+                        elapsed.toMillis(), rows, sql, formatted(parameters), isQuery(sql) ? plan() : "-");
+            }
+        }
+
+        /**
+         * Explained on the statement's own connection, so that it sees the same data, and without being inspected itself.
+         */
+        private String plan() {
+            try (var explain = connection.prepareStatement("EXPLAIN " + sql)) {
+                for (var parameter : parameters.entrySet()) {
+                    explain.setObject(parameter.getKey(), parameter.getValue());
+                }
+                final var plan = new StringJoiner("\n  ");
+                try (var resultSet = explain.executeQuery()) {
+                    while (resultSet.next()) {
+                        plan.add(resultSet.getString(1));
+                    }
+                }
+                return plan.toString();
+            } catch (SQLException e) {
+                return "not available, " + e.getMessage();
+            }
+        }
+
+        private static boolean isQuery(String sql) {
+            final var start = sql.stripLeading().toLowerCase(Locale.ROOT);
+            return start.startsWith("select") || start.startsWith("with");
+        }
+
+        private static String formatted(Map<Integer, Object> parameters) {
+            final var formatted = new StringJoiner(", ", "[", "]");
+            parameters.forEach((index, value) ->
+                    formatted.add(index + "=" + (value instanceof byte[] bytes ? HexFormat.of().formatHex(bytes) : value)));
+            return formatted.toString();
+        }
+    }
+
+    private final class InspectedStatement implements InvocationHandler {
+        private final Connection connection;
+        private final Statement statement;
+        private final String sql;
+        private final Map<Integer, Object> parameters = new TreeMap<>();
+        private Execution pending;
+
+        private InspectedStatement(Connection connection, Statement statement, String sql) {
+            this.connection = connection;
+            this.statement = statement;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            final var name = method.getName();
+            switch (name) {
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "clearParameters" -> parameters.clear();
+                case "close" -> finishPending();
+                default -> {
+                    if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                        // setNull(index, sqlType) gives the type as second argument
+                        parameters.put(index, name.equals("setNull") ? null : args[1]);
+                    }
+                }
+            }
+            if (!name.startsWith("execute")) {
+                return QueryInspectingDataSource.invoke(statement, method, args);
+            }
+
+            finishPending();
+            // plain statements get their SQL with each execution
+            final var executedSql = args != null && args.length > 0 && args[0] instanceof String given ? given : sql;
+            final var execution = new Execution(connection, executedSql, new TreeMap<>(parameters));
+            final Object result;
+            try {
+                result = QueryInspectingDataSource.invoke(statement, method, args);
+            } catch (Throwable e) {
+                execution.finish();
+                throw e;
+            }
+            if (result instanceof ResultSet resultSet) {
+                pending = execution;
+                return counting(resultSet, execution);
+            }
+            execution.finish();
+            return result;
+        }
+
+        private void finishPending() {
+            if (pending != null) {
+                pending.finish();
+                pending = null;
+            }
+        }
+
+        private ResultSet counting(ResultSet resultSet, Execution execution) {
+            return (ResultSet) Proxy.newProxyInstance(
+                    ResultSet.class.getClassLoader(),
+                    new Class<?>[]{ResultSet.class},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "equals" -> proxy == args[0];
+                        case "hashCode" -> System.identityHashCode(proxy);
+                        case "next" -> {
+                            final var hasRow = (boolean) QueryInspectingDataSource.invoke(resultSet, method, args);
+                            if (hasRow) {
+                                execution.rows++;
+                            } else {
+                                execution.finish();
+                            }
+                            yield hasRow;
+                        }
+                        case "close" -> {
+                            execution.finish();
+                            yield QueryInspectingDataSource.invoke(resultSet, method, args);
+                        }
+                        default -> QueryInspectingDataSource.invoke(resultSet, method, args);
+                    });
+        }
+    }
+}
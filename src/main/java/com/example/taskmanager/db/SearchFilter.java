@@ -0,0 +1,124 @@
+package com.example.taskmanager.db;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * JPQL WHERE clause made of the predicates of the given search params only.
+ * A catch-all {@code (:param IS NULL OR ...)} condition prevents the database from using an index for that column,
+ * as the plan is chosen before the parameter is known, so absent params are left out of the query instead.
+ */
+final class SearchFilter {
+
+    private final List<String> predicates = new ArrayList<>();
+    private final Map<String, Object> parameters = new LinkedHashMap<>();
+
+    /**
+     * Adds the predicate unless {@code value} is null, the predicate refers to it as {@code :parameter}.
+     */
+    SearchFilter and(String predicate, String parameter, Object value) {
+        if (value != null) {
+            predicates.add(predicate);
+            parameters.put(parameter, value);
+        }
+        return this;
+    }
+
+    /**
+     * Adds a predicate without parameters of its own, unless it is empty.
+     */
+    SearchFilter and(String predicate) {
+        if (!predicate.isEmpty()) {
+            predicates.add(predicate);
+        }
+        return this;
+    }
+
+    /**
+     * A filter with the same predicates and parameters, which can be extended without changing this one.
+     */
+    SearchFilter copy() {
+        final var copy = new SearchFilter();
+        copy.predicates.addAll(predicates);
+        copy.parameters.putAll(parameters);
+        return copy;
+    }
+
+    String where() {
+        return predicates.isEmpty() ? "" : " WHERE " + String.join(" AND ", predicates);
+    }
+
+    <Q extends Query> Q bind(Q query) {
+        parameters.forEach(query::setParameter);
+        return query;
+    }
+
+    /**
+     * Reads the requested page plus one row, which only tells whether there is a next page.
+     */
+    static <T> Slice<T> slice(TypedQuery<T> query, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(query.getResultList(), pageable, false);
+        }
+        final var rows = query
+                .setFirstResult(Math.toIntExact(pageable.getOffset()))
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+        final var hasNext = rows.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+    }
+
+    /**
+     * Reads all rows from a forward-only cursor in chunks of {@code chunkSize}, each chunk is handed to
+     * {@code prepareChunk} (e.g. to load lazy associations of the whole chunk at once) before its first row is streamed.
+     * Entities are read-only and those of a chunk get detached once the next chunk is read, so the persistence context
+     * doesn't grow with the number of rows. The stream has to be consumed within the transaction and closed.
+     */
+    static <T> Stream<T> stream(TypedQuery<T> query, EntityManager entityManager, int chunkSize, Consumer<List<T>> prepareChunk) {
+        final var rows = query
+                .setHint(HibernateHints.HINT_FETCH_SIZE, chunkSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+        final var cursor = rows.iterator();
+        final var chunks = new Iterator<List<T>>() {
+            private List<T> previous = List.of();
+
+            @Override
+            public boolean hasNext() {
+                return cursor.hasNext();
+            }
+
+            @Override
+            public List<T> next() {
+                // not clear(), moving the cursor may already have loaded the first entity of this chunk
+                previous.forEach(entityManager::detach);
+                final var chunk = new ArrayList<T>(chunkSize);
+                while (chunk.size() < chunkSize && cursor.hasNext()) {
+                    chunk.add(cursor.next());
+                }
+                prepareChunk.accept(chunk);
+                previous = chunk;
+                return chunk;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(chunks, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .flatMap(List::stream)
+                .onClose(rows::close);
+    }
+}
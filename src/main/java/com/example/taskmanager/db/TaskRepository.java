@@ -3,32 +3,119 @@ package com.example.taskmanager.db;
 import com.example.taskmanager.domain.Task;
 import com.example.taskmanager.domain.TaskId;
 import com.example.taskmanager.domain.TaskStatus;
-import com.example.taskmanager.domain.UserId;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.time.LocalDateTime;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.UUID;
 
 @Repository
-public interface TaskRepository extends PagingAndSortingRepository<Task, TaskId>, CrudRepository<Task, TaskId> {
-
-    @Query("SELECT t FROM Task t WHERE " +
-            "(:title IS NULL OR LOWER(t.title) LIKE LOWER(CONCAT('%', :title, '%'))) AND " +
-            "(:description IS NULL OR LOWER(t.description) LIKE LOWER(CONCAT('%', :description, '%'))) AND " +
-            "(:taskStatus IS NULL OR t.taskStatus = :taskStatus) AND " +
-            "(:deadlineFrom IS NULL OR t.deadline >= :deadlineFrom) AND " +
-            "(:deadlineTo IS NULL OR t.deadline <= :deadlineTo) AND " +
-            "(:assignedUserId IS NULL OR :assignedUserId MEMBER OF t.assignedUsers)")
-    Page<Task> findBySearchParams(@Param("title") String title,
-                                  @Param("description") String description,
-                                  @Param("taskStatus") TaskStatus taskStatus,
-                                  @Param("deadlineFrom") LocalDateTime deadlineFrom,
-                                  @Param("deadlineTo") LocalDateTime deadlineTo,
-                                  @Param("assignedUserId") UserId assignedUserId,
-                                  Pageable pageable);
+public interface TaskRepository extends PagingAndSortingRepository<Task, TaskId>, CrudRepository<Task, TaskId>,
+        BatchInsertRepository<Task>, TaskSearchRepository {
+
+    String ASSIGNED_USER_FILTER =
+            "FROM task_assigned_users a JOIN tasks t ON t.id = a.task_id WHERE a.user_id = :userId";
+    String ASSIGNED_USER_STATUS_FILTER = ASSIGNED_USER_FILTER + " AND t.task_status = :taskStatus";
+
+    /**
+     * Tasks of a single assignee ordered by deadline, starting from the assignee index on the native UUID column.
+     * The order is fixed, so the pageable must not be sorted.
+     */
+    @Query(value = "SELECT t.* " + ASSIGNED_USER_FILTER + " ORDER BY t.deadline NULLS LAST, t.id",
+            countQuery = "SELECT COUNT(*) " + ASSIGNED_USER_FILTER,
+            nativeQuery = true)
+    Page<Task> findByAssignedUser(@Param("userId") UUID userId, Pageable pageable);
+
+    /**
+     * Like {@link #findByAssignedUser}, only the tasks at the given status.
+     * A query of its own rather than an optional status parameter, which would leave the planner a catch-all predicate.
+     */
+    @Query(value = "SELECT t.* " + ASSIGNED_USER_STATUS_FILTER + " ORDER BY t.deadline NULLS LAST, t.id",
+            countQuery = "SELECT COUNT(*) " + ASSIGNED_USER_STATUS_FILTER,
+            nativeQuery = true)
+    Page<Task> findByAssignedUserAndStatus(@Param("userId") UUID userId,
+                                           @Param("taskStatus") String taskStatus,
+                                           Pageable pageable);
+
+    /**
+     * Changes the status in a single statement, bumping the version like a regular update would.
+     * Only matches the task while it is at the expected version, unless that is {@code null}.
+     *
+     * @return number of updated tasks, 0 if the task doesn't exist or is at another version
+     */
+    @Modifying
+    @Query("UPDATE Task t SET t.taskStatus = :status, t.version = t.version + 1, t.lastModified = :now " +
+            "WHERE t.id.id = :taskId AND (:expectedVersion IS NULL OR t.version = :expectedVersion)")
+    int updateStatus(@Param("taskId") UUID taskId,
+                     @Param("status") TaskStatus status,
+                     @Param("expectedVersion") Long expectedVersion,
+                     @Param("now") Instant now);
+
+    /**
+     * Sets the status of all given tasks in a single update, bumping their versions.
+     * Tasks already at that status are left untouched.
+     *
+     * @return number of updated tasks
+     */
+    @Modifying
+    @Query("UPDATE Task t SET t.taskStatus = :status, t.version = t.version + 1, t.lastModified = :now " +
+            "WHERE t.id.id IN :taskIds AND t.taskStatus <> :status")
+    int updateStatusOfAll(@Param("taskIds") Collection<UUID> taskIds,
+                          @Param("status") TaskStatus status,
+                          @Param("now") Instant now);
+
+    /**
+     * Bumps the version of a task whose collections are changed by statements of their own, which also locks it
+     * for the rest of the transaction. Only matches the task while it is at the expected version, unless that is {@code null}.
+     *
+     * @return number of updated tasks, 0 if the task doesn't exist or is at another version
+     */
+    @Modifying
+    @Query("UPDATE Task t SET t.version = t.version + 1, t.lastModified = :now " +
+            "WHERE t.id.id = :taskId AND (:expectedVersion IS NULL OR t.version = :expectedVersion)")
+    int touch(@Param("taskId") UUID taskId,
+              @Param("expectedVersion") Long expectedVersion,
+              @Param("now") Instant now);
+
+    /**
+     * Adds the existing users among the given ones to the assignees of the task, skipping those already assigned.
+     *
+     * @param userIds must not be empty
+     * @return number of added assignees
+     */
+    @Modifying
+    @Query(value = "INSERT INTO task_assigned_users (task_id, user_id) " +
+            "SELECT t.id, u.id FROM tasks t JOIN users u ON u.id IN (:userIds) " +
+            "WHERE t.id = :taskId " +
+            "AND NOT EXISTS (SELECT 1 FROM task_assigned_users a WHERE a.task_id = t.id AND a.user_id = u.id)",
+            nativeQuery = true)
+    int insertAssignees(@Param("taskId") UUID taskId, @Param("userIds") Collection<UUID> userIds);
+
+    /**
+     * Deletes the given tasks in a single statement without loading them, their assignees go along by the cascading
+     * foreign key. Native, as a JPQL bulk delete of Task would delete the assignee collection by a statement of its own.
+     *
+     * @return number of deleted tasks
+     */
+    @Modifying
+    @Query(value = "DELETE FROM tasks WHERE id IN (:taskIds)", nativeQuery = true)
+    int deleteAllInBulk(@Param("taskIds") Collection<UUID> taskIds);
+
+    /**
+     * Bumps the version of all tasks assigned to the user, whose assignees are about to change by other statements.
+     *
+     * @return number of updated tasks
+     */
+    @Modifying
+    @Query(value = "UPDATE tasks SET version = version + 1, last_modified = :now " +
+            "WHERE id IN (SELECT a.task_id FROM task_assigned_users a WHERE a.user_id = :userId)",
+            nativeQuery = true)
+    int touchTasksOfUser(@Param("userId") UUID userId, @Param("now") Instant now);
 }
@@ -0,0 +1,84 @@
+package com.example.taskmanager.db;
+
+import com.example.taskmanager.domain.Task;
+import com.example.taskmanager.domain.TaskStatus;
+import com.example.taskmanager.domain.UserId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Task search, where every filter param is optional and a null one matches all tasks.
+ */
+public interface TaskSearchRepository {
+
+    Slice<Task> findBySearchParams(String title,
+                                   String description,
+                                   TaskStatus taskStatus,
+                                   LocalDateTime deadlineFrom,
+                                   LocalDateTime deadlineTo,
+                                   UserId assignedUserId,
+                                   Pageable pageable);
+
+    long countBySearchParams(String title,
+                             String description,
+                             TaskStatus taskStatus,
+                             LocalDateTime deadlineFrom,
+                             LocalDateTime deadlineTo,
+                             UserId assignedUserId);
+
+    /**
+     * Same filters as {@link #findBySearchParams}, but seeks directly past the given position
+     * instead of skipping an offset, and doesn't count the matching rows.
+     */
+    List<Task> findNextBySearchParams(String title,
+                                      String description,
+                                      TaskStatus taskStatus,
+                                      LocalDateTime deadlineFrom,
+                                      LocalDateTime deadlineTo,
+                                      UserId assignedUserId,
+                                      Keyset keyset,
+                                      int limit);
+
+    /**
+     * All tasks matching the same filters as {@link #findBySearchParams} ordered by id, with their assignees loaded
+     * per chunk of {@code chunkSize} tasks, see {@link SearchFilter#stream}. Has to be consumed within a transaction and closed.
+     */
+    Stream<Task> streamBySearchParams(String title,
+                                      String description,
+                                      TaskStatus taskStatus,
+                                      LocalDateTime deadlineFrom,
+                                      LocalDateTime deadlineTo,
+                                      UserId assignedUserId,
+                                      int chunkSize);
+
+    /**
+     * Ids of all tasks matching the same filters as {@link #findBySearchParams}, without loading the tasks.
+     */
+    List<UUID> findIdsBySearchParams(String title,
+                                     String description,
+                                     TaskStatus taskStatus,
+                                     LocalDateTime deadlineFrom,
+                                     LocalDateTime deadlineTo,
+                                     UserId assignedUserId);
+
+    /**
+     * Sets the status of all tasks matching the same filters as {@link #findBySearchParams} in a single update,
+     * bumping their versions. Tasks already at that status are left untouched.
+     *
+     * @return number of updated tasks
+     */
+    int updateStatusBySearchParams(String title,
+                                   String description,
+                                   TaskStatus taskStatus,
+                                   LocalDateTime deadlineFrom,
+                                   LocalDateTime deadlineTo,
+                                   UserId assignedUserId,
+                                   TaskStatus newStatus,
+                                   Instant now);
+}
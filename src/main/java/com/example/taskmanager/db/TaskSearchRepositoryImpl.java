@@ -0,0 +1,126 @@
+package com.example.taskmanager.db;
+
+import com.example.taskmanager.domain.Task;
+import com.example.taskmanager.domain.TaskStatus;
+import com.example.taskmanager.domain.UserId;
+import jakarta.persistence.EntityManager;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+class TaskSearchRepositoryImpl implements TaskSearchRepository {
+
+    private static final Set<String> SORTABLE_PROPERTIES = Set.of("title", "deadline", Keyset.ID);
+
+    private final EntityManager entityManager;
+
+    TaskSearchRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Slice<Task> findBySearchParams(String title,
+                                          String description,
+                                          TaskStatus taskStatus,
+                                          LocalDateTime deadlineFrom,
+                                          LocalDateTime deadlineTo,
+                                          UserId assignedUserId,
+                                          Pageable pageable) {
+        final var filter = filter(title, description, taskStatus, deadlineFrom, deadlineTo, assignedUserId);
+        final var jpql = QueryUtils.applySorting("SELECT t FROM Task t" + filter.where(), pageable.getSort(), "t");
+        return SearchFilter.slice(filter.bind(entityManager.createQuery(jpql, Task.class)), pageable);
+    }
+
+    @Override
+    public long countBySearchParams(String title,
+                                    String description,
+                                    TaskStatus taskStatus,
+                                    LocalDateTime deadlineFrom,
+                                    LocalDateTime deadlineTo,
+                                    UserId assignedUserId) {
+        final var filter = filter(title, description, taskStatus, deadlineFrom, deadlineTo, assignedUserId);
+        return filter.bind(entityManager.createQuery("SELECT COUNT(t) FROM Task t" + filter.where(), Long.class))
+                .getSingleResult();
+    }
+
+    @Override
+    public List<Task> findNextBySearchParams(String title,
+                                             String description,
+                                             TaskStatus taskStatus,
+                                             LocalDateTime deadlineFrom,
+                                             LocalDateTime deadlineTo,
+                                             UserId assignedUserId,
+                                             Keyset keyset,
+                                             int limit) {
+        keyset.requireSortableBy(SORTABLE_PROPERTIES);
+        final var filter = filter(title, description, taskStatus, deadlineFrom, deadlineTo, assignedUserId);
+        return keyset.readNext(entityManager, "SELECT t FROM Task t", "t", Task.class, filter, limit);
+    }
+
+    @Override
+    public Stream<Task> streamBySearchParams(String title,
+                                             String description,
+                                             TaskStatus taskStatus,
+                                             LocalDateTime deadlineFrom,
+                                             LocalDateTime deadlineTo,
+                                             UserId assignedUserId,
+                                             int chunkSize) {
+        final var filter = filter(title, description, taskStatus, deadlineFrom, deadlineTo, assignedUserId);
+        final var query = filter.bind(entityManager.createQuery("SELECT t FROM Task t" + filter.where() + " ORDER BY t.id.id", Task.class));
+        // reading the assignees of one task loads those of the whole chunk, see the batch size of Task.assignedUsers
+        return SearchFilter.stream(query, entityManager, chunkSize, chunk -> chunk.forEach(Task::getAssignedUsers));
+    }
+
+    @Override
+    public List<UUID> findIdsBySearchParams(String title,
+                                           String description,
+                                           TaskStatus taskStatus,
+                                           LocalDateTime deadlineFrom,
+                                           LocalDateTime deadlineTo,
+                                           UserId assignedUserId) {
+        final var filter = filter(title, description, taskStatus, deadlineFrom, deadlineTo, assignedUserId);
+        return filter.bind(entityManager.createQuery("SELECT t.id.id FROM Task t" + filter.where(), UUID.class))
+                .getResultList();
+    }
+
+    @Override
+    public int updateStatusBySearchParams(String title,
+                                          String description,
+                                          TaskStatus taskStatus,
+                                          LocalDateTime deadlineFrom,
+                                          LocalDateTime deadlineTo,
+                                          UserId assignedUserId,
+                                          TaskStatus newStatus,
+                                          Instant now) {
+        final var filter = filter(title, description, taskStatus, deadlineFrom, deadlineTo, assignedUserId)
+                .and("t.taskStatus <> :newStatus", "newStatus", newStatus);
+        return filter.bind(entityManager.createQuery(
+                        "UPDATE Task t SET t.taskStatus = :newStatus, t.version = t.version + 1, t.lastModified = :now" + filter.where()))
+                .setParameter("now", now)
+                .executeUpdate();
+    }
+
+    private static SearchFilter filter(String title,
+                                       String description,
+                                       TaskStatus taskStatus,
+                                       LocalDateTime deadlineFrom,
+                                       LocalDateTime deadlineTo,
+                                       UserId assignedUserId) {
+        return new SearchFilter()
+                .and("LOWER(t.title) LIKE LOWER(CONCAT('%', :title, '%'))", "title", title)
+                .and("LOWER(t.description) LIKE LOWER(CONCAT('%', :description, '%'))", "description", description)
+                .and("t.taskStatus = :taskStatus", "taskStatus", taskStatus)
+                .and("t.deadline >= :deadlineFrom", "deadlineFrom", deadlineFrom)
+                .and("t.deadline <= :deadlineTo", "deadlineTo", deadlineTo)
+                // driven by the assignee index rather than probing the assignees of every task like MEMBER OF does
+                .and("t.id.id IN (SELECT a.id.id FROM Task a JOIN a.assignedUsers u WHERE u = :assignedUserId)",
+                        "assignedUserId", assignedUserId == null ? null : assignedUserId.id());
+    }
+}
@@ -2,24 +2,38 @@ package com.example.taskmanager.db;
 
 import com.example.taskmanager.domain.User;
 import com.example.taskmanager.domain.UserId;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
 @Repository
-public interface UserRepository extends PagingAndSortingRepository<User, UserId>, CrudRepository<User, UserId> {
+public interface UserRepository extends PagingAndSortingRepository<User, UserId>, CrudRepository<User, UserId>,
+        BatchInsertRepository<User>, UserSearchRepository {
+
+    @Query("SELECT u.id.id FROM User u WHERE u.id.id IN :ids")
+    List<UUID> findExistingIds(@Param("ids") Collection<UUID> ids);
 
-    @Query("SELECT u FROM User u WHERE " +
-            "(:firstName IS NULL OR LOWER(u.firstName) LIKE LOWER(CONCAT('%', :firstName, '%'))) AND " +
-            "(:lastName IS NULL OR LOWER(u.lastName) LIKE LOWER(CONCAT('%', :lastName, '%'))) AND " +
-            "(:email IS NULL OR LOWER(u.email) LIKE LOWER(CONCAT('%', :email, '%')))")
-    Page<User> findBySearchParams(@Param("firstName") String firstName,
-                                  @Param("lastName") String lastName,
-                                  @Param("email") String email,
-                                  Pageable pageable);
+    /**
+     * Resolves which of the given users do not exist with a single query, regardless of how many ids are passed.
+     */
+    default Set<UserId> findMissingIds(Collection<UserId> userIds) {
+        if (userIds.isEmpty()) {
+            return Set.of();
+        }
+        final var existing = new HashSet<>(findExistingIds(userIds.stream().map(UserId::id).distinct().toList()));
+        return userIds.stream()
+                .filter(userId -> !existing.contains(userId.id()))
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
 
 }
@@ -0,0 +1,42 @@
+package com.example.taskmanager.db;
+
+import com.example.taskmanager.domain.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * User search, where every filter param is optional and a null one matches all users.
+ */
+public interface UserSearchRepository {
+
+    Slice<User> findBySearchParams(String firstName,
+                                   String lastName,
+                                   String email,
+                                   Pageable pageable);
+
+    long countBySearchParams(String firstName,
+                             String lastName,
+                             String email);
+
+    /**
+     * Same filters as {@link #findBySearchParams}, but seeks directly past the given position
+     * instead of skipping an offset, and doesn't count the matching rows.
+     */
+    List<User> findNextBySearchParams(String firstName,
+                                      String lastName,
+                                      String email,
+                                      Keyset keyset,
+                                      int limit);
+
+    /**
+     * All users matching the same filters as {@link #findBySearchParams} ordered by id, read in chunks of {@code chunkSize}
+     * users, see {@link SearchFilter#stream}. Has to be consumed within a transaction and closed.
+     */
+    Stream<User> streamBySearchParams(String firstName,
+                                      String lastName,
+                                      String email,
+                                      int chunkSize);
+}
@@ -0,0 +1,61 @@
+package com.example.taskmanager.db;
+
+import com.example.taskmanager.domain.User;
+import jakarta.persistence.EntityManager;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+class UserSearchRepositoryImpl implements UserSearchRepository {
+
+    private static final Set<String> SORTABLE_PROPERTIES = Set.of("firstName", "lastName", "email", Keyset.ID);
+
+    private final EntityManager entityManager;
+
+    UserSearchRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public Slice<User> findBySearchParams(String firstName, String lastName, String email, Pageable pageable) {
+        final var filter = filter(firstName, lastName, email);
+        final var jpql = QueryUtils.applySorting("SELECT u FROM User u" + filter.where(), pageable.getSort(), "u");
+        return SearchFilter.slice(filter.bind(entityManager.createQuery(jpql, User.class)), pageable);
+    }
+
+    @Override
+    public long countBySearchParams(String firstName, String lastName, String email) {
+        final var filter = filter(firstName, lastName, email);
+        return filter.bind(entityManager.createQuery("SELECT COUNT(u) FROM User u" + filter.where(), Long.class))
+                .getSingleResult();
+    }
+
+    @Override
+    public List<User> findNextBySearchParams(String firstName,
+                                             String lastName,
+                                             String email,
+                                             Keyset keyset,
+                                             int limit) {
+        keyset.requireSortableBy(SORTABLE_PROPERTIES);
+        return keyset.readNext(entityManager, "SELECT u FROM User u", "u", User.class, filter(firstName, lastName, email), limit);
+    }
+
+    @Override
+    public Stream<User> streamBySearchParams(String firstName, String lastName, String email, int chunkSize) {
+        final var filter = filter(firstName, lastName, email);
+        final var query = filter.bind(entityManager.createQuery("SELECT u FROM User u" + filter.where() + " ORDER BY u.id.id", User.class));
+        return SearchFilter.stream(query, entityManager, chunkSize, chunk -> {
+        });
+    }
+
+    private static SearchFilter filter(String firstName, String lastName, String email) {
+        return new SearchFilter()
+                .and("LOWER(u.firstName) LIKE LOWER(CONCAT('%', :firstName, '%'))", "firstName", firstName)
+                .and("LOWER(u.lastName) LIKE LOWER(CONCAT('%', :lastName, '%'))", "lastName", lastName)
+                .and("LOWER(u.email) LIKE LOWER(CONCAT('%', :email, '%'))", "email", email);
+    }
+}
@@ -2,11 +2,16 @@ package com.example.taskmanager.domain;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 
 // For production code, domain fields should be domain value objects like Title, Deadline etc. with their own validations,
@@ -16,9 +21,16 @@ import java.util.UUID;
 @Entity
 @Table(name = "tasks")
 public class Task {
+    /**
+     * Upper bound of tasks loaded at once, see spring.data.web.pageable.max-page-size
+     */
+    public static final int MAX_PAGE_SIZE = 1000;
+
     @EmbeddedId
     private TaskId id;
+    @Size(max = 255) // width of the column
     private String title;
+    @Size(max = 255)
     private String description;
     @Future
     private LocalDateTime deadline;
@@ -28,11 +40,20 @@ public class Task {
      * See: README.md#architecture-decision
      */
     @ElementCollection
+    @BatchSize(size = MAX_PAGE_SIZE) // loads assignees of a whole search page in one statement instead of one per task
     @CollectionTable(
             name = "task_assigned_users",
             joinColumns = @JoinColumn(name = "task_id")
     )
-    private List<String> assignedUsers; // flatten this to string due to hibernate issues
+    @Column(name = "user_id")
+    @OrderBy
+    private Set<UUID> assignedUsers; // plain UUIDs rather than UserId due to hibernate issues
+    @Transient
+    private List<UserId> assignedUsersView; // built on first read, dropped on change
+    @Version
+    private Long version; // null until persisted, which also tells spring data the task is new
+    @UpdateTimestamp
+    private Instant lastModified;
 
     // required by hibernate
     private Task() {}
@@ -43,7 +64,7 @@ public class Task {
         this.description = description;
         this.deadline = deadline;
         this.taskStatus = taskStatus;
-        this.assignedUsers = new ArrayList<>(assignedUsers.stream().map(uid -> uid.id().toString()).toList());
+        this.assignedUsers = new LinkedHashSet<>(assignedUsers.stream().map(UserId::id).toList());
     }
 
     public static Task create(TaskId id, String title, String description, LocalDateTime deadline, List<UserId> assignedUsers) {
@@ -60,11 +81,10 @@ public class Task {
         if (userId == null) {
             throw new IllegalArgumentException("User ID cannot be null");
         }
-        if (assignedUsers.contains(userId.id().toString())) {
-            // a business decision to ignore this for now instead of throwing an exception
-            return;
+        // adding an already assigned user is a business decision to ignore this for now instead of throwing an exception
+        if (assignedUsers.add(userId.id())) {
+            assignedUsersView = null;
         }
-        assignedUsers.add(userId.id().toString());
     }
 
     public void changeStatus(TaskStatus newStatus) {
@@ -103,8 +123,27 @@ public class Task {
         return taskStatus;
     }
 
+    /**
+     * @return version incremented by every update, null for a task not stored yet
+     */
+    public Long getVersion() {
+        return version;
+    }
+
+    public Instant getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * @return unmodifiable list of the assignees in the order they were assigned (or by id once loaded from the database)
+     */
     public List<UserId> getAssignedUsers() {
-        return new ArrayList<>(assignedUsers.stream().map(uid -> new UserId(UUID.fromString(uid))).toList());
+        var view = assignedUsersView;
+        if (view == null) {
+            view = assignedUsers.stream().map(UserId::new).toList();
+            assignedUsersView = view;
+        }
+        return view;
     }
 
     @Override
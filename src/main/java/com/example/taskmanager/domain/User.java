@@ -3,8 +3,11 @@ package com.example.taskmanager.domain;
 import jakarta.persistence.EmbeddedId;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.Email;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.Instant;
 import java.util.Objects;
 
 // note: at this point this class could be a record as no modifications are required.
@@ -19,6 +22,10 @@ public class User {
     private String lastName;
     @Email
     private String email;
+    @Version
+    private Long version; // null until persisted, which also tells spring data the user is new
+    @UpdateTimestamp
+    private Instant lastModified;
 
     // required by hibernate
     private User() {}
@@ -62,6 +69,17 @@ public class User {
         return email;
     }
 
+    /**
+     * @return version incremented by every update, null for a user not stored yet
+     */
+    public Long getVersion() {
+        return version;
+    }
+
+    public Instant getLastModified() {
+        return lastModified;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (this == obj) return true;
@@ -0,0 +1,143 @@
+package com.example.taskmanager.metrics;
+
+import com.example.taskmanager.service.TaskSearchParams;
+import com.example.taskmanager.service.UserSearchParams;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.StringJoiner;
+
+/**
+ * Times every controller, service and repository operation, so that e.g. a slow search can be split into its
+ * search query, its count query and the mapping of the results (the controller's time minus the service's).
+ * <p>
+ * Timers are tagged with the layer, the operation ({@code TaskService.findTasks}), the exception thrown, if any,
+ * and the filter shape: which fields of the search params passed to the outermost search were set, e.g.
+ * {@code title+taskStatus}. Operations called by a search carry the filter of that search.
+ * Exceptions thrown by services are counted as well. Once the outermost operation ends, the SQL statements it ran and
+ * the rows they read (see {@link QueryMetrics}) are recorded, which for a controller method means per request.
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE) // outside of caching, so cache hits are timed as well
+public class OperationMetricsAspect {
+
+    public static final String OPERATION_TIMER = "taskmanager.operations";
+    public static final String EXCEPTION_COUNTER = "taskmanager.operation.exceptions";
+    public static final String ROWS_SUMMARY = "taskmanager.request.rows";
+    public static final String STATEMENTS_SUMMARY = "taskmanager.request.statements";
+
+    private static final String NO_EXCEPTION = "none";
+
+    /**
+     * Spring Data repositories are JDK proxies, named after the repository interface they implement first.
+     */
+    private static final ClassValue<String> TYPE_NAMES = new ClassValue<>() {
+        @Override
+        protected String computeValue(Class<?> type) {
+            if (Proxy.isProxyClass(type) && type.getInterfaces().length > 0) {
+                return type.getInterfaces()[0].getSimpleName();
+            }
+            return ClassUtils.getUserClass(type).getSimpleName();
+        }
+    };
+
+    private final Meter.MeterProvider<Timer> timers;
+    private final Meter.MeterProvider<Counter> exceptions;
+    private final Meter.MeterProvider<DistributionSummary> rows;
+    private final Meter.MeterProvider<DistributionSummary> statements;
+
+    public OperationMetricsAspect(MeterRegistry registry) {
+        this.timers = Timer.builder(OPERATION_TIMER)
+                .description("Time taken by controller, service and repository operations")
+                .withRegistry(registry);
+        this.exceptions = Counter.builder(EXCEPTION_COUNTER)
+                .description("Exceptions thrown by service operations")
+                .withRegistry(registry);
+        this.rows = DistributionSummary.builder(ROWS_SUMMARY)
+                .description("Rows read by the SQL statements of an operation")
+                .withRegistry(registry);
+        this.statements = DistributionSummary.builder(STATEMENTS_SUMMARY)
+                .description("SQL statements run by an operation")
+                .withRegistry(registry);
+    }
+
+    @Around("within(com.example.taskmanager.api..*) && @within(org.springframework.web.bind.annotation.RestController)")
+    public Object timeController(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, "controller");
+    }
+
+    @Around("execution(public * com.example.taskmanager.service.TaskService.*(..))"
+            + " || execution(public * com.example.taskmanager.service.UserService.*(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, "service");
+    }
+
+    @Around("bean(taskRepository) || bean(userRepository)")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, "repository");
+    }
+
+    private Object time(ProceedingJoinPoint joinPoint, String layer) throws Throwable {
+        final var operation = TYPE_NAMES.get(joinPoint.getTarget().getClass()) + "." + joinPoint.getSignature().getName();
+        final var scope = OperationScope.enter(operation);
+        final var filter = filterOf(joinPoint.getArgs());
+        if (filter != null) {
+            scope.filter(filter);
+        }
+        final var sample = Timer.start();
+        var exception = NO_EXCEPTION;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            if (layer.equals("service")) {
+                exceptions.withTags("operation", operation, "exception", exception).increment();
+            }
+            throw e;
+        } finally {
+            sample.stop(timers.withTags("layer", layer, "operation", operation, "filter", scope.filter(), "exception", exception));
+            if (scope.exit()) {
+                rows.withTags("operation", scope.operation(), "filter", scope.filter()).record(scope.rows());
+                statements.withTags("operation", scope.operation(), "filter", scope.filter()).record(scope.statements());
+            }
+        }
+    }
+
+    /**
+     * @return names of the set fields of the search params among the arguments, null if there are none
+     */
+    private static String filterOf(Object[] args) {
+        for (Object arg : args) {
+            if (arg instanceof TaskSearchParams params) {
+                return shape("title", params.title(), "description", params.description(), "taskStatus", params.taskStatus(),
+                        "deadlineFrom", params.deadlineFrom(), "deadlineTo", params.deadlineTo(),
+                        "assignedUserId", params.assignedUserId());
+            }
+            if (arg instanceof UserSearchParams params) {
+                return shape("firstName", params.firstName(), "lastName", params.lastName(), "email", params.email());
+            }
+        }
+        return null;
+    }
+
+    private static String shape(Object... namesAndValues) {
+        final var setFields = new StringJoiner("+");
+        setFields.setEmptyValue(OperationScope.NO_FILTER);
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            if (namesAndValues[i + 1] != null) {
+                setFields.add((String) namesAndValues[i]);
+            }
+        }
+        return setFields.toString();
+    }
+}
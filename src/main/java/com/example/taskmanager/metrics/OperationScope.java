@@ -0,0 +1,91 @@
+package com.example.taskmanager.metrics;
+
+/**
+ * What the outermost timed operation of the current thread, usually a controller method handling a request,
+ * has done so far: the shape of its search filter, the SQL statements it ran and the rows they read.
+ */
+final class OperationScope {
+
+    static final String NO_FILTER = "none";
+    static final String NO_OPERATION = "none";
+
+    private static final ThreadLocal<OperationScope> CURRENT = new ThreadLocal<>();
+
+    private final String operation;
+    private String filter = NO_FILTER;
+    private long rows;
+    private long statements;
+    private int depth;
+
+    private OperationScope(String operation) {
+        this.operation = operation;
+    }
+
+    /**
+     * Joins the scope of the current thread, starting a new one if no operation is running yet.
+     */
+    static OperationScope enter(String operation) {
+        var scope = CURRENT.get();
+        if (scope == null) {
+            scope = new OperationScope(operation);
+            CURRENT.set(scope);
+        }
+        scope.depth++;
+        return scope;
+    }
+
+    /**
+     * Counts a statement and its rows for the running operation, if any.
+     */
+    static void statementExecuted(long rows) {
+        final var scope = CURRENT.get();
+        if (scope != null) {
+            scope.statements++;
+            scope.rows += rows;
+        }
+    }
+
+    /**
+     * @return the outermost operation running on this thread, {@value #NO_OPERATION} if there is none
+     */
+    static String currentOperation() {
+        final var scope = CURRENT.get();
+        return scope == null ? NO_OPERATION : scope.operation;
+    }
+
+    /**
+     * @return whether the outermost operation ended with this, in which case the scope is gone from the thread
+     */
+    boolean exit() {
+        if (--depth > 0) {
+            return false;
+        }
+        CURRENT.remove();
+        return true;
+    }
+
+    String operation() {
+        return operation;
+    }
+
+    String filter() {
+        return filter;
+    }
+
+    /**
+     * Keeps the first filter seen, so that every layer of a search is tagged with the filter the search started with.
+     */
+    void filter(String filter) {
+        if (NO_FILTER.equals(this.filter)) {
+            this.filter = filter;
+        }
+    }
+
+    long rows() {
+        return rows;
+    }
+
+    long statements() {
+        return statements;
+    }
+}
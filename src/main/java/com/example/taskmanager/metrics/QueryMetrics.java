@@ -0,0 +1,51 @@
+package com.example.taskmanager.metrics;
+
+import com.example.taskmanager.db.QueryInspectingDataSource;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Times each SQL statement, tagged with the kind of statement and the outermost operation running it,
+ * and adds it to the statement counts of that operation and of the current request.
+ */
+public class QueryMetrics implements QueryInspectingDataSource.Listener {
+
+    public static final String QUERY_TIMER = "taskmanager.queries";
+    public static final String QUERY_ROWS_SUMMARY = "taskmanager.queries.rows";
+
+    private final Meter.MeterProvider<Timer> timers;
+    private final Meter.MeterProvider<DistributionSummary> rows;
+
+    public QueryMetrics(MeterRegistry registry) {
+        this.timers = Timer.builder(QUERY_TIMER)
+                .description("Time taken by SQL statements, including reading their results")
+                .withRegistry(registry);
+        this.rows = DistributionSummary.builder(QUERY_ROWS_SUMMARY)
+                .description("Rows read by SQL queries")
+                .withRegistry(registry);
+    }
+
+    @Override
+    public void statementExecuted(String sql, Duration elapsed, long rowCount) {
+        OperationScope.statementExecuted(rowCount);
+        SqlStatementCountFilter.statementExecuted();
+        final var operation = OperationScope.currentOperation();
+        final var statement = kindOf(sql);
+        timers.withTags("operation", operation, "statement", statement).record(elapsed);
+        rows.withTags("operation", operation, "statement", statement).record(rowCount);
+    }
+
+    private static String kindOf(String sql) {
+        final var keyword = sql.stripLeading().split("\\s", 2)[0].toLowerCase(Locale.ROOT);
+        return switch (keyword) {
+            case "select", "insert", "update", "delete", "merge" -> keyword;
+            case "with" -> "select";
+            default -> "other";
+        };
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.taskmanager.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Tells in the {@value #HEADER} response header how many SQL statements a request ran before its response started,
+ * which makes N+1 queries visible on any single request. The header is set just before the body is written,
+ * as the response can't be changed once the first bytes are sent.
+ */
+public class SqlStatementCountFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-SQL-Statement-Count";
+
+    private static final ThreadLocal<long[]> STATEMENTS = new ThreadLocal<>();
+
+    /**
+     * Counts a statement for the request handled by the current thread, if any.
+     */
+    static void statementExecuted() {
+        final var statements = STATEMENTS.get();
+        if (statements != null) {
+            statements[0]++;
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        final var statements = new long[1];
+        STATEMENTS.set(statements);
+        try {
+            filterChain.doFilter(request, new CountingResponse(response, statements));
+        } finally {
+            STATEMENTS.remove();
+            setHeader(response, statements);
+        }
+    }
+
+    private static void setHeader(HttpServletResponse response, long[] statements) {
+        if (!response.isCommitted()) {
+            response.setHeader(HEADER, Long.toString(statements[0]));
+        }
+    }
+
+    private static final class CountingResponse extends HttpServletResponseWrapper {
+        private final long[] statements;
+
+        private CountingResponse(HttpServletResponse response, long[] statements) {
+            super(response);
+            this.statements = statements;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            setHeader((HttpServletResponse) getResponse(), statements);
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            setHeader((HttpServletResponse) getResponse(), statements);
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            setHeader((HttpServletResponse) getResponse(), statements);
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            setHeader((HttpServletResponse) getResponse(), statements);
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            setHeader((HttpServletResponse) getResponse(), statements);
+            super.sendError(sc);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.taskmanager.search;
+
+import com.example.taskmanager.domain.Task;
+import com.example.taskmanager.domain.TaskId;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-memory inverted index over task titles and descriptions, replacing the {@code LIKE '%...%'} scan for text search.
+ * Every word of the query has to match a word of the task, either exactly or as its prefix.
+ * Matches are ranked by where they were found (title over description) and how (whole word over prefix).
+ * <p>
+ * Since the H2 database lives in the same process, keeping the index next to it is consistent as long as
+ * all task writes go through {@link com.example.taskmanager.service.TaskService}.
+ */
+public class TaskTextIndex {
+
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final float TITLE_WEIGHT = 2f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+    private static final float PREFIX_MATCH_FACTOR = 0.5f;
+    // best score first, ties broken by id to keep pages stable
+    private static final Comparator<Map.Entry<TaskId, Float>> RANKING = Map.Entry.<TaskId, Float>comparingByValue().reversed()
+            .thenComparing(entry -> entry.getKey().id());
+
+    // word -> task -> weight of the word within the task
+    private final TreeMap<String, Map<TaskId, Float>> postings = new TreeMap<>();
+    private final Map<TaskId, Set<String>> wordsByTask = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void index(Task task) {
+        final var weights = new HashMap<String, Float>();
+        words(task.getTitle()).forEach(word -> weights.merge(word, TITLE_WEIGHT, Float::sum));
+        words(task.getDescription()).forEach(word -> weights.merge(word, DESCRIPTION_WEIGHT, Float::sum));
+
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(task.getId());
+            weights.forEach((word, weight) -> postings.computeIfAbsent(word, w -> new HashMap<>()).put(task.getId(), weight));
+            wordsByTask.put(task.getId(), weights.keySet());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(TaskId taskId) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(taskId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            wordsByTask.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return ids of the best matching tasks, best match first, skipping the first {@code offset} matches
+     */
+    public TextSearchResult search(String query, int offset, int limit) {
+        final var queryWords = words(query).distinct().toList();
+        if (queryWords.isEmpty()) {
+            return new TextSearchResult(List.of(), 0);
+        }
+
+        Map<TaskId, Float> scores = null;
+        lock.readLock().lock();
+        try {
+            for (String queryWord : queryWords) {
+                final var wordScores = scoresOf(queryWord);
+                if (scores == null) {
+                    scores = wordScores;
+                } else {
+                    // every query word has to match
+                    scores.keySet().retainAll(wordScores.keySet());
+                    scores.replaceAll((taskId, score) -> score + wordScores.get(taskId));
+                }
+                if (scores.isEmpty()) {
+                    return new TextSearchResult(List.of(), 0);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return new TextSearchResult(topMatches(scores, offset, limit), scores.size());
+    }
+
+    /**
+     * Keeps only the best {@code offset + limit} matches while ranking, so broad prefixes don't sort every hit.
+     */
+    private static List<TaskId> topMatches(Map<TaskId, Float> scores, int offset, int limit) {
+        final var wanted = (int) Math.min((long) offset + limit, scores.size());
+        if (wanted <= offset) {
+            return List.of();
+        }
+        final var best = new PriorityQueue<Map.Entry<TaskId, Float>>(wanted, RANKING.reversed());
+        for (var entry : scores.entrySet()) {
+            if (best.size() < wanted) {
+                best.add(entry);
+            } else if (RANKING.compare(entry, best.peek()) < 0) {
+                best.poll();
+                best.add(entry);
+            }
+        }
+        final var ranked = new ArrayList<TaskId>(best.size());
+        while (!best.isEmpty()) {
+            ranked.add(best.poll().getKey());
+        }
+        Collections.reverse(ranked);
+        return ranked.subList(offset, ranked.size());
+    }
+
+    private Map<TaskId, Float> scoresOf(String queryWord) {
+        final var scores = new HashMap<TaskId, Float>();
+        postings.subMap(queryWord, true, queryWord + Character.MAX_VALUE, false).forEach((word, tasks) -> {
+            final var factor = word.equals(queryWord) ? 1f : PREFIX_MATCH_FACTOR;
+            tasks.forEach((taskId, weight) -> scores.merge(taskId, weight * factor, Math::max));
+        });
+        return scores;
+    }
+
+    private void removeUnlocked(TaskId taskId) {
+        final var words = wordsByTask.remove(taskId);
+        if (words == null) {
+            return;
+        }
+        for (String word : words) {
+            final var tasks = postings.get(word);
+            tasks.remove(taskId);
+            if (tasks.isEmpty()) {
+                postings.remove(word);
+            }
+        }
+    }
+
+    private static Stream<String> words(String text) {
+        if (text == null || text.isBlank()) {
+            return Stream.empty();
+        }
+        return WORD_SEPARATOR.splitAsStream(text.toLowerCase(Locale.ROOT)).filter(word -> !word.isEmpty());
+    }
+
+    public record TextSearchResult(List<TaskId> taskIds, long totalHits) {
+    }
+}
@@ -0,0 +1,226 @@
+package com.example.taskmanager.search;
+
+import com.example.taskmanager.domain.User;
+import com.example.taskmanager.domain.UserId;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index over user names and emails for type-ahead search.
+ * Queries of three or more characters match anywhere in the full name or email: candidates come from intersecting
+ * the posting lists of the query's trigrams and are confirmed by a substring check. Shorter queries match name
+ * and email prefixes only. Matches starting at the beginning of a word are returned first.
+ * <p>
+ * Users are referenced by a dense ordinal so that posting lists are plain sorted int arrays;
+ * removed users leave a gap that is skipped while searching and dropped on the next {@link #clear()}.
+ */
+public class UserSearchIndex {
+
+    private static final int GRAM = 3;
+
+    private final List<Entry> entries = new ArrayList<>();
+    private final Map<UserId, Integer> ordinals = new HashMap<>();
+    private final Map<String, IntList> trigrams = new HashMap<>();
+    private final Map<String, IntList> shortPrefixes = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public record Suggestion(UserId userId, String displayName) {
+    }
+
+    private record Entry(Suggestion suggestion, String fullName, String email) {
+
+        boolean contains(String query) {
+            return fullName.contains(query) || email.contains(query);
+        }
+
+        boolean hasWordStartingWith(String query) {
+            return startsWord(fullName, query) || startsWord(email, query);
+        }
+
+        private static boolean startsWord(String text, String query) {
+            for (int i = text.indexOf(query); i >= 0; i = text.indexOf(query, i + 1)) {
+                if (i == 0 || !Character.isLetterOrDigit(text.charAt(i - 1))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    public void add(User user) {
+        final var fullName = (user.getFirstName() + " " + user.getLastName()).toLowerCase(Locale.ROOT);
+        final var email = user.getEmail().toLowerCase(Locale.ROOT);
+        final var entry = new Entry(
+                new Suggestion(user.getId(), user.getFirstName() + " " + user.getLastName()), fullName, email);
+
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(user.getId());
+            final int ordinal = entries.size();
+            entries.add(entry);
+            ordinals.put(user.getId(), ordinal);
+            final var grams = new LinkedHashSet<String>();
+            addTrigrams(grams, fullName);
+            addTrigrams(grams, email);
+            grams.forEach(gram -> trigrams.computeIfAbsent(gram, g -> new IntList()).add(ordinal));
+            final var prefixes = new LinkedHashSet<String>();
+            for (String word : List.of(user.getFirstName(), user.getLastName(), user.getEmail())) {
+                final var lowerCase = word.toLowerCase(Locale.ROOT);
+                for (int length = 1; length < GRAM && length <= lowerCase.length(); length++) {
+                    prefixes.add(lowerCase.substring(0, length));
+                }
+            }
+            prefixes.forEach(prefix -> shortPrefixes.computeIfAbsent(prefix, p -> new IntList()).add(ordinal));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UserId userId) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(userId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            ordinals.clear();
+            trigrams.clear();
+            shortPrefixes.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return at most {@code limit} users whose full name or email contains the query, word-start matches first
+     */
+    public List<Suggestion> suggest(String query, int limit) {
+        if (query == null || query.isBlank() || limit <= 0) {
+            return List.of();
+        }
+        final var normalized = query.strip().toLowerCase(Locale.ROOT);
+
+        lock.readLock().lock();
+        try {
+            final var shortQuery = normalized.length() < GRAM;
+            final var candidates = shortQuery ? shortPrefixes.getOrDefault(normalized, IntList.EMPTY) : intersectTrigramsOf(normalized);
+
+            final var wordStartMatches = new ArrayList<Suggestion>();
+            final var otherMatches = new ArrayList<Suggestion>();
+            for (int i = 0; i < candidates.size(); i++) {
+                final var entry = entries.get(candidates.get(i));
+                // trigrams may come from different parts of the text, so trigram candidates need to be confirmed
+                if (entry == null || (!shortQuery && !entry.contains(normalized))) {
+                    continue;
+                }
+                if (entry.hasWordStartingWith(normalized)) {
+                    wordStartMatches.add(entry.suggestion());
+                    if (wordStartMatches.size() == limit) {
+                        break;
+                    }
+                } else if (otherMatches.size() < limit) {
+                    otherMatches.add(entry.suggestion());
+                }
+            }
+            wordStartMatches.addAll(otherMatches);
+            return List.copyOf(wordStartMatches.subList(0, Math.min(limit, wordStartMatches.size())));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private IntList intersectTrigramsOf(String query) {
+        final var grams = new LinkedHashSet<String>();
+        addTrigrams(grams, query);
+        final var postings = new ArrayList<IntList>(grams.size());
+        for (String gram : grams) {
+            final var list = trigrams.get(gram);
+            if (list == null) {
+                return IntList.EMPTY;
+            }
+            postings.add(list);
+        }
+        // start from the rarest trigram so the intersection shrinks as fast as possible
+        postings.sort(Comparator.comparingInt(IntList::size));
+        var result = postings.get(0);
+        for (int i = 1; i < postings.size() && result.size() > 0; i++) {
+            result = result.retainedIn(postings.get(i));
+        }
+        return result;
+    }
+
+    private void removeUnlocked(UserId userId) {
+        final var ordinal = ordinals.remove(userId);
+        if (ordinal != null) {
+            entries.set(ordinal, null);
+        }
+    }
+
+    private static void addTrigrams(Set<String> grams, String text) {
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+    }
+
+    /**
+     * Growable array of ascending ints.
+     */
+    private static final class IntList {
+        static final IntList EMPTY = new IntList(0);
+
+        private int[] values;
+        private int size;
+
+        IntList() {
+            this(4);
+        }
+
+        private IntList(int capacity) {
+            values = new int[capacity];
+        }
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.max(4, size * 2));
+            }
+            values[size++] = value;
+        }
+
+        int get(int index) {
+            return values[index];
+        }
+
+        int size() {
+            return size;
+        }
+
+        /**
+         * @return values of this list also contained in {@code other}, found by binary search as {@code other} is usually much longer
+         */
+        IntList retainedIn(IntList other) {
+            final var retained = new IntList(size);
+            for (int i = 0; i < size; i++) {
+                if (Arrays.binarySearch(other.values, 0, other.size, values[i]) >= 0) {
+                    retained.add(values[i]);
+                }
+            }
+            return retained;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.taskmanager.service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts committed changes of one kind of entity, so that clients can revalidate search results
+ * without the search being run again. The version starts with the startup time, so versions handed out
+ * before a restart never match again.
+ */
+public class ChangeTracker {
+
+    private final Clock clock;
+    private final long startedAt;
+    private final AtomicLong changes = new AtomicLong();
+    private volatile Instant lastModified;
+
+    /**
+     * @param tag opaque version, different after every change
+     * @param lastModified time of the last change, or of the startup if there was none
+     */
+    public record Version(String tag, Instant lastModified) {
+    }
+
+    ChangeTracker() {
+        this(Clock.systemUTC());
+    }
+
+    ChangeTracker(Clock clock) {
+        this.clock = clock;
+        this.lastModified = clock.instant();
+        this.startedAt = lastModified.toEpochMilli();
+    }
+
+    Version current() {
+        return new Version(startedAt + "-" + changes.get(), lastModified);
+    }
+
+    void changed() {
+        lastModified = clock.instant();
+        changes.incrementAndGet();
+    }
+}
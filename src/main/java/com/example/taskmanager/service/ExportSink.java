@@ -0,0 +1,12 @@
+package com.example.taskmanager.service;
+
+import java.io.IOException;
+
+/**
+ * Receives the results of an export one at a time, e.g. to write each to a response as soon as it is read.
+ */
+@FunctionalInterface
+public interface ExportSink<T> {
+
+    void accept(T item) throws IOException;
+}
@@ -0,0 +1,104 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.db.Keyset;
+import org.springframework.data.domain.Sort;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Translates between opaque cursors handed out to clients and {@link Keyset} positions of a given entity type.
+ * The cursor carries the sort as well, so follow-up requests only need to pass the cursor.
+ */
+final class KeysetPaging<T> {
+
+    private final Map<String, SortKey<T>> sortKeys;
+    private final Function<T, UUID> idExtractor;
+
+    KeysetPaging(Map<String, SortKey<T>> sortKeys, Function<T, UUID> idExtractor) {
+        this.sortKeys = sortKeys;
+        this.idExtractor = idExtractor;
+    }
+
+    /**
+     * @param extractor reads the sort key of an entity
+     * @param parser    restores the sort key from its {@code toString()} form
+     */
+    record SortKey<T>(Function<T, Object> extractor, Function<String, Object> parser) {
+    }
+
+    Keyset position(String cursor, Sort sort) {
+        if (cursor == null || cursor.isBlank()) {
+            return start(sort);
+        }
+        try (var in = new DataInputStream(new ByteArrayInputStream(Base64.getUrlDecoder().decode(cursor)))) {
+            final var property = in.readUTF();
+            final var direction = in.readBoolean() ? Sort.Direction.ASC : Sort.Direction.DESC;
+            final var lastValue = in.readBoolean() ? sortKey(property).parser().apply(in.readUTF()) : null;
+            final var lastId = new UUID(in.readLong(), in.readLong());
+            return new Keyset(property, direction, lastValue, lastId);
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor " + cursor, e);
+        }
+    }
+
+    /**
+     * Cuts the rows fetched with a limit of {@code size + 1} down to the page and derives the cursor of the next one.
+     */
+    CursorPage<T> page(List<T> rows, int size, Keyset keyset) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        final var content = rows.subList(0, size);
+        final var last = content.get(size - 1);
+        final var next = keyset.after(sortKey(keyset.property()).extractor().apply(last), idExtractor.apply(last));
+        return new CursorPage<>(List.copyOf(content), encode(next));
+    }
+
+    private Keyset start(Sort sort) {
+        if (sort.isUnsorted()) {
+            return Keyset.first(Keyset.ID, Sort.Direction.ASC);
+        }
+        final var orders = sort.toList();
+        if (orders.size() > 1) {
+            throw new IllegalArgumentException("Cursor pagination supports sorting by a single property only");
+        }
+        final var order = orders.get(0);
+        sortKey(order.getProperty());
+        return Keyset.first(order.getProperty(), order.getDirection());
+    }
+
+    private SortKey<T> sortKey(String property) {
+        final var sortKey = sortKeys.get(property);
+        if (sortKey == null) {
+            throw new IllegalArgumentException("Cannot page by " + property + ", supported properties are " + sortKeys.keySet());
+        }
+        return sortKey;
+    }
+
+    private static String encode(Keyset keyset) {
+        final var bytes = new ByteArrayOutputStream();
+        try (var out = new DataOutputStream(bytes)) {
+            out.writeUTF(keyset.property());
+            out.writeBoolean(keyset.direction().isAscending());
+            out.writeBoolean(keyset.lastValue() != null);
+            if (keyset.lastValue() != null) {
+                out.writeUTF(keyset.lastValue().toString());
+            }
+            out.writeLong(keyset.lastId().getMostSignificantBits());
+            out.writeLong(keyset.lastId().getLeastSignificantBits());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.domain.UserId;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory set of the ids of existing users, so that validating assignees usually needs no query.
+ * The set may lag behind the database, e.g. while it is being rebuilt, so ids missing from it have to be confirmed
+ * by a query. Ids in the set are trusted, which relies on users being deleted through {@link UserService} only.
+ */
+public class KnownUserIds {
+
+    private final Set<UUID> ids = ConcurrentHashMap.newKeySet();
+
+    public void add(UserId userId) {
+        ids.add(userId.id());
+    }
+
+    public void remove(UserId userId) {
+        ids.remove(userId.id());
+    }
+
+    public void clear() {
+        ids.clear();
+    }
+
+    /**
+     * @return distinct ids of the given users which are not known to exist, in their original order
+     */
+    public List<UserId> unknownOf(Collection<UserId> userIds) {
+        return userIds.stream().filter(userId -> !ids.contains(userId.id())).distinct().toList();
+    }
+}
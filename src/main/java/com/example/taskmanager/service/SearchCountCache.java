@@ -0,0 +1,63 @@
+package com.example.taskmanager.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Short-lived cache of search totals keyed by the normalized search params, so clients polling the same filter
+ * don't re-run the count query on every call. Local writes invalidate it once they are committed; changes made
+ * elsewhere show up after the TTL.
+ */
+final class SearchCountCache<K> {
+
+    private static final int MAX_ENTRIES = 10_000;
+
+    private final Duration ttl;
+    private final Clock clock;
+    private final ConcurrentMap<K, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    SearchCountCache(Duration ttl) {
+        this(ttl, Clock.systemUTC());
+    }
+
+    SearchCountCache(Duration ttl, Clock clock) {
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    long get(K key, LongSupplier counter) {
+        if (ttl.isZero() || ttl.isNegative()) {
+            return counter.getAsLong();
+        }
+        final var now = clock.instant();
+        final var cached = entries.get(key);
+        if (cached != null && now.isBefore(cached.expiresAt())) {
+            return cached.count();
+        }
+
+        final var generationBeforeCount = generation.get();
+        final var count = counter.getAsLong();
+        if (entries.size() >= MAX_ENTRIES) {
+            entries.values().removeIf(entry -> !now.isBefore(entry.expiresAt()));
+        }
+        // a write that happened while counting could have changed the total, so don't keep it then
+        if (entries.size() < MAX_ENTRIES && generation.get() == generationBeforeCount) {
+            entries.put(key, new Entry(count, now.plus(ttl)));
+        }
+        return count;
+    }
+
+    void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    private record Entry(long count, Instant expiresAt) {
+    }
+}
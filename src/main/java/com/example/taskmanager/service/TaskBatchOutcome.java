@@ -0,0 +1,21 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.domain.TaskId;
+
+/**
+ * Result of a single task within a batch creation, {@code error} is only set for rejected tasks.
+ */
+public record TaskBatchOutcome(TaskId taskId, String error) {
+
+    public static TaskBatchOutcome created(TaskId taskId) {
+        return new TaskBatchOutcome(taskId, null);
+    }
+
+    public static TaskBatchOutcome rejected(TaskId taskId, String error) {
+        return new TaskBatchOutcome(taskId, error);
+    }
+
+    public boolean isCreated() {
+        return error == null;
+    }
+}
@@ -4,6 +4,7 @@ import com.example.taskmanager.domain.TaskStatus;
 import com.example.taskmanager.domain.UserId;
 
 import java.time.LocalDateTime;
+import java.util.Locale;
 
 public record TaskSearchParams(
     String title,
@@ -12,4 +13,14 @@ public record TaskSearchParams(
     LocalDateTime deadlineFrom,
     LocalDateTime deadlineTo,
     UserId assignedUserId
-) {}
\ No newline at end of file
+) {
+    /**
+     * Text filters are matched case-insensitively, so searches differing only in their case are the same search.
+     */
+    TaskSearchParams normalized() {
+        return new TaskSearchParams(
+                title == null ? null : title.toLowerCase(Locale.ROOT),
+                description == null ? null : description.toLowerCase(Locale.ROOT),
+                taskStatus, deadlineFrom, deadlineTo, assignedUserId);
+    }
+}
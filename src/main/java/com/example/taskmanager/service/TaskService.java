@@ -1,26 +1,77 @@
 package com.example.taskmanager.service;
 
+import com.example.taskmanager.db.Keyset;
 import com.example.taskmanager.db.TaskRepository;
 import com.example.taskmanager.db.UserRepository;
 import com.example.taskmanager.domain.Task;
 import com.example.taskmanager.domain.TaskId;
 import com.example.taskmanager.domain.TaskStatus;
 import com.example.taskmanager.domain.UserId;
+import com.example.taskmanager.search.TaskTextIndex;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 public class TaskService {
 
+    /**
+     * Cache of {@link #findById(TaskId)}, evicted by every change of a task.
+     */
+    public static final String TASK_CACHE = "tasks";
+
+    private static final int INDEX_REBUILD_CHUNK_SIZE = 1000;
+    private static final int BULK_CHUNK_SIZE = 1000;
+    /**
+     * Matches the batch size of the assignees, so each chunk of an export loads its assignees with one statement.
+     */
+    private static final int EXPORT_CHUNK_SIZE = Task.MAX_PAGE_SIZE;
+
+    private static final KeysetPaging<Task> KEYSET_PAGING = new KeysetPaging<>(Map.<String, KeysetPaging.SortKey<Task>>of(
+            "title", new KeysetPaging.SortKey<>(Task::getTitle, title -> title),
+            "deadline", new KeysetPaging.SortKey<>(Task::getDeadline, LocalDateTime::parse),
+            Keyset.ID, new KeysetPaging.SortKey<>(task -> null, id -> id)
+    ), task -> task.getId().id());
+
     private final TaskRepository taskRepository;
     private final UserRepository userRepository;
+    private final SearchCountCache<TaskSearchParams> countCache;
+    private final ChangeTracker changes = new ChangeTracker();
+    private final TaskTextIndex textIndex;
+    private final KnownUserIds knownUserIds;
 
-    public TaskService(TaskRepository taskRepository, UserRepository userRepository) {
+    public TaskService(TaskRepository taskRepository,
+                       UserRepository userRepository,
+                       Duration countCacheTtl,
+                       TaskTextIndex textIndex,
+                       KnownUserIds knownUserIds) {
         this.taskRepository = taskRepository;
         this.userRepository = userRepository;
+        this.countCache = new SearchCountCache<>(countCacheTtl);
+        this.textIndex = textIndex;
+        this.knownUserIds = knownUserIds;
     }
 
     public void addTask(Task task) throws UserNotFoundException, DomainObjectValidationException {
@@ -31,26 +82,133 @@ public class TaskService {
             // todo: add more domain validations, then distinguish validation failure exc from other db issues
             throw new DomainObjectValidationException(e.getMessage());
         }
+        tasksChanged();
+        textIndex.index(task);
+    }
+
+    /**
+     * Creates all tasks whose assignees exist in one transaction, validating the assignees of the whole batch with at most one query.
+     * Tasks referencing unknown users are rejected individually and don't prevent the others from being created.
+     */
+    @Transactional(rollbackFor = DomainObjectValidationException.class)
+    public List<TaskBatchOutcome> addTasks(List<Task> tasks) throws DomainObjectValidationException {
+        final var missingUsers = findMissingUsers(tasks.stream()
+                .flatMap(task -> task.getAssignedUsers().stream())
+                .collect(Collectors.toSet()));
+
+        final var outcomes = new ArrayList<TaskBatchOutcome>(tasks.size());
+        final var validTasks = new ArrayList<Task>(tasks.size());
+        for (Task task : tasks) {
+            final var missingAssignees = task.getAssignedUsers().stream().filter(missingUsers::contains).toList();
+            if (missingAssignees.isEmpty()) {
+                validTasks.add(task);
+                outcomes.add(TaskBatchOutcome.created(task.getId()));
+            } else {
+                outcomes.add(TaskBatchOutcome.rejected(task.getId(), new UserNotFoundException(missingAssignees).getMessage()));
+            }
+        }
+
+        try {
+            taskRepository.insertAll(validTasks);
+        } catch (Exception e) {
+            throw new DomainObjectValidationException(e.getMessage());
+        }
+        tasksChanged();
+        Transactions.afterCommit(() -> validTasks.forEach(textIndex::index));
+        return outcomes;
     }
 
+    /**
+     * Changes the status with a single conditional update, without loading the task first.
+     *
+     * @param expectedVersion version the task has to be at, {@code null} to change it regardless
+     */
     @Transactional
-    public void changeStatus(TaskId taskId, TaskStatus status) throws TaskNotFoundException {
-        final var task = taskRepository.findById(taskId).orElseThrow(() -> new TaskNotFoundException(taskId));
-        task.changeStatus(status);
-        taskRepository.save(task);
+    @CacheEvict(cacheNames = TASK_CACHE, key = "#taskId")
+    public void changeStatus(TaskId taskId, TaskStatus status, Long expectedVersion) throws TaskNotFoundException, TaskVersionMismatchException {
+        if (taskRepository.updateStatus(taskId.id(), status, expectedVersion, Instant.now()) == 0) {
+            failedUpdate(taskId, expectedVersion);
+        }
+        tasksChanged();
     }
 
+    /**
+     * Sets the status of all given tasks with one update per {@value #BULK_CHUNK_SIZE} tasks, without loading them.
+     * Missing tasks and those already at that status are skipped.
+     *
+     * @return number of changed tasks
+     */
     @Transactional
-    public void assignUsers(TaskId taskId, List<UserId> users) throws TaskNotFoundException, UserNotFoundException {
-        final var task = taskRepository.findById(taskId).orElseThrow(() -> new TaskNotFoundException(taskId));
+    @CacheEvict(cacheNames = TASK_CACHE, allEntries = true)
+    public int changeStatusOfAll(Collection<TaskId> taskIds, TaskStatus status) {
+        final var now = Instant.now();
+        int changed = 0;
+        for (var chunk : chunksOf(taskIds.stream().map(TaskId::id).distinct().toList())) {
+            changed += taskRepository.updateStatusOfAll(chunk, status, now);
+        }
+        if (changed > 0) {
+            tasksChanged();
+        }
+        return changed;
+    }
+
+    /**
+     * Sets the status of all tasks matching the search with a single update, without loading them.
+     * Tasks already at that status are skipped.
+     *
+     * @return number of changed tasks
+     */
+    @Transactional
+    @CacheEvict(cacheNames = TASK_CACHE, allEntries = true)
+    public int changeStatusOfMatching(TaskSearchParams searchParams, TaskStatus status) {
+        final var changed = taskRepository.updateStatusBySearchParams(
+                searchParams.title(),
+                searchParams.description(),
+                searchParams.taskStatus(),
+                searchParams.deadlineFrom(),
+                searchParams.deadlineTo(),
+                searchParams.assignedUserId(),
+                status,
+                Instant.now()
+        );
+        if (changed > 0) {
+            tasksChanged();
+        }
+        return changed;
+    }
+
+    /**
+     * Adds the assignees with one insert skipping those already assigned, without loading the task first.
+     * The task is versioned and locked by a conditional update beforehand, so concurrent assignments queue up
+     * instead of conflicting.
+     *
+     * @param expectedVersion version the task has to be at, {@code null} to assign regardless
+     */
+    @Transactional
+    @CacheEvict(cacheNames = TASK_CACHE, key = "#taskId")
+    public void assignUsers(TaskId taskId, List<UserId> users, Long expectedVersion) throws TaskNotFoundException, UserNotFoundException, TaskVersionMismatchException {
         validateUsersExist(users);
-        users.forEach(task::assignUser);
-        taskRepository.save(task);
+        if (taskRepository.touch(taskId.id(), expectedVersion, Instant.now()) == 0) {
+            failedUpdate(taskId, expectedVersion);
+        }
+        if (!users.isEmpty()) {
+            taskRepository.insertAssignees(taskId.id(), users.stream().map(UserId::id).toList());
+        }
+        tasksChanged();
     }
 
+    /**
+     * @param expectedVersion version the task has to be at, {@code null} to edit it regardless
+     * @throws OptimisticLockingFailureException on commit if the task was changed concurrently
+     */
     @Transactional
-    public void editTask(TaskId taskId, TaskEditDto taskEditDto) throws TaskNotFoundException, UserNotFoundException, DomainObjectValidationException {
+    @CacheEvict(cacheNames = TASK_CACHE, key = "#taskId")
+    public void editTask(TaskId taskId, TaskEditDto taskEditDto, Long expectedVersion)
+            throws TaskNotFoundException, UserNotFoundException, DomainObjectValidationException, TaskVersionMismatchException {
         final var task = taskRepository.findById(taskId).orElseThrow(() -> new TaskNotFoundException(taskId));
+        if (expectedVersion != null && !expectedVersion.equals(task.getVersion())) {
+            throw new TaskVersionMismatchException(taskId, expectedVersion);
+        }
         if (taskEditDto.title().isPresent()) {
             task.changeTitle(taskEditDto.title().get());
         }
@@ -67,18 +225,106 @@ public class TaskService {
         } catch (Exception e) {
             throw new DomainObjectValidationException(e.getMessage());
         }
+        tasksChanged();
+        Transactions.afterCommit(() -> textIndex.index(task));
     }
 
+    /**
+     * Deletes the task with a single statement, without loading it first.
+     */
+    @Transactional
+    @CacheEvict(cacheNames = TASK_CACHE, key = "#taskId")
     public void deleteTask(TaskId taskId) {
-        taskRepository.deleteById(taskId);
+        taskRepository.deleteAllInBulk(List.of(taskId.id()));
+        tasksChanged();
+        Transactions.afterCommit(() -> textIndex.remove(taskId));
+    }
+
+    /**
+     * Deletes all given tasks with one statement per {@value #BULK_CHUNK_SIZE} tasks, without loading them.
+     *
+     * @return number of deleted tasks, not counting missing ones
+     */
+    @Transactional
+    @CacheEvict(cacheNames = TASK_CACHE, allEntries = true)
+    public int deleteTasks(Collection<TaskId> taskIds) {
+        return deleteInChunks(taskIds.stream().map(TaskId::id).distinct().toList());
+    }
+
+    /**
+     * Deletes all tasks matching the search. Only their ids are read, which are then deleted like
+     * {@link #deleteTasks(Collection)} does.
+     *
+     * @return number of deleted tasks
+     */
+    @Transactional
+    @CacheEvict(cacheNames = TASK_CACHE, allEntries = true)
+    public int deleteMatchingTasks(TaskSearchParams searchParams) {
+        return deleteInChunks(taskRepository.findIdsBySearchParams(
+                searchParams.title(),
+                searchParams.description(),
+                searchParams.taskStatus(),
+                searchParams.deadlineFrom(),
+                searchParams.deadlineTo(),
+                searchParams.assignedUserId()
+        ));
     }
 
+    /**
+     * Bumps the versions of all tasks assigned to the user with a single statement. Meant to run in the transaction
+     * deleting the user, whose assignments are then removed by the cascading foreign key, so that its tasks don't lose
+     * the assignee unnoticed. The task cache is cleared once that transaction commits, tasks cached by concurrent
+     * lookups until then still have the assignee.
+     */
+    @Transactional
+    @CacheEvict(cacheNames = TASK_CACHE, allEntries = true)
+    public void touchTasksOfUser(UserId userId) {
+        if (taskRepository.touchTasksOfUser(userId.id(), Instant.now()) > 0) {
+            tasksChanged();
+        }
+    }
+
+    @Cacheable(cacheNames = TASK_CACHE, unless = "#result == null")
+    @Transactional(readOnly = true)
     public Optional<Task> findById(TaskId taskId) {
-        return taskRepository.findById(taskId);
+        final var task = taskRepository.findById(taskId);
+        // the cached task outlives its session, so the lazy assignees are loaded while it is open
+        task.ifPresent(Task::getAssignedUsers);
+        return task;
+    }
+
+    /**
+     * Version of all tasks which changes with every committed change, for revalidating search results.
+     * Read it before searching, so that a change committed meanwhile leads to a newer version.
+     */
+    public ChangeTracker.Version tasksVersion() {
+        return changes.current();
     }
 
+    /**
+     * Search including the total number of matching tasks. The count query is skipped when the total can be derived
+     * from the page itself, and otherwise cached briefly per normalized search.
+     */
+    @Transactional(readOnly = true)
     public Page<Task> findTasks(TaskSearchParams searchParams, Pageable pageable) {
-        return taskRepository.findBySearchParams(
+        final var content = findTaskSlice(searchParams, pageable).getContent();
+        return PageableExecutionUtils.getPage(content, pageable, () -> countCache.get(searchParams.normalized(),
+                () -> taskRepository.countBySearchParams(
+                        searchParams.title(),
+                        searchParams.description(),
+                        searchParams.taskStatus(),
+                        searchParams.deadlineFrom(),
+                        searchParams.deadlineTo(),
+                        searchParams.assignedUserId()
+                )));
+    }
+
+    /**
+     * Search without the total, only telling whether there is a next page.
+     */
+    @Transactional(readOnly = true)
+    public Slice<Task> findTaskSlice(TaskSearchParams searchParams, Pageable pageable) {
+        return withAssignees(taskRepository.findBySearchParams(
                 searchParams.title(),
                 searchParams.description(),
                 searchParams.taskStatus(),
@@ -86,14 +332,172 @@ public class TaskService {
                 searchParams.deadlineTo(),
                 searchParams.assignedUserId(),
                 pageable
+        ));
+    }
+
+    /**
+     * Keyset paginated variant of {@link #findTasks(TaskSearchParams, Pageable)}, starting after the given cursor
+     * (or from the first task for an empty one) and skipping the count query.
+     *
+     * @throws IllegalArgumentException for an invalid cursor or a sort the cursor can't be built from
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Task> findTasks(TaskSearchParams searchParams, String cursor, int size, Sort sort) {
+        final var keyset = KEYSET_PAGING.position(cursor, sort);
+        final var rows = taskRepository.findNextBySearchParams(
+                searchParams.title(),
+                searchParams.description(),
+                searchParams.taskStatus(),
+                searchParams.deadlineFrom(),
+                searchParams.deadlineTo(),
+                searchParams.assignedUserId(),
+                keyset,
+                size + 1
         );
+        return KEYSET_PAGING.page(withAssignees(rows), size, keyset);
+    }
+
+    /**
+     * Ranked full-text search over titles and descriptions; every word of the query has to match a word
+     * of the task or be its prefix.
+     */
+    @Transactional(readOnly = true)
+    public Page<Task> searchTasks(String query, Pageable pageable) {
+        final var offset = pageable.isPaged() ? (int) pageable.getOffset() : 0;
+        final var limit = pageable.isPaged() ? pageable.getPageSize() : Task.MAX_PAGE_SIZE;
+        final var result = textIndex.search(query, offset, limit);
+        final var tasksById = new HashMap<TaskId, Task>();
+        taskRepository.findAllById(result.taskIds()).forEach(task -> tasksById.put(task.getId(), task));
+        // keep the ranking of the index, skipping tasks deleted in the meantime
+        final var tasks = result.taskIds().stream().map(tasksById::get).filter(Objects::nonNull).toList();
+        return new PageImpl<>(withAssignees(tasks), pageable, result.totalHits());
+    }
+
+    /**
+     * Tasks assigned to the user ordered by deadline, optionally only those of the given status.
+     * Served by the user to task index, so the cost depends on the number of tasks of that user only.
+     *
+     * @throws UserNotFoundException if there are no tasks because the user doesn't exist
+     */
+    @Transactional(readOnly = true)
+    public Page<Task> findTasksOfUser(UserId userId, TaskStatus taskStatus, Pageable pageable) throws UserNotFoundException {
+        // the queries fix the order, so only the paging is passed on
+        final var unsorted = pageable.isPaged() ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()) : Pageable.unpaged();
+        final var tasks = taskStatus == null
+                ? taskRepository.findByAssignedUser(userId.id(), unsorted)
+                : taskRepository.findByAssignedUserAndStatus(userId.id(), taskStatus.name(), unsorted);
+        if (tasks.isEmpty() && !userRepository.existsById(userId)) {
+            throw new UserNotFoundException(userId);
+        }
+        return withAssignees(tasks);
+    }
+
+    /**
+     * Hands every task matching the search to the sink, ordered by id and with its assignees. Tasks are read from a
+     * single cursor in chunks of {@value #EXPORT_CHUNK_SIZE} which are detached once written, so memory use doesn't
+     * depend on the number of matching tasks, and the filter runs once instead of once per page.
+     */
+    @Transactional(readOnly = true)
+    public void exportTasks(TaskSearchParams searchParams, ExportSink<Task> sink) throws IOException {
+        try (var tasks = taskRepository.streamBySearchParams(
+                searchParams.title(),
+                searchParams.description(),
+                searchParams.taskStatus(),
+                searchParams.deadlineFrom(),
+                searchParams.deadlineTo(),
+                searchParams.assignedUserId(),
+                EXPORT_CHUNK_SIZE)) {
+            for (var iterator = tasks.iterator(); iterator.hasNext(); ) {
+                sink.accept(iterator.next());
+            }
+        }
     }
 
-    private void validateUsersExist(List<UserId> userIds) throws UserNotFoundException {
-        for (UserId userId : userIds) {
-            if (!userRepository.existsById(userId)) {
-                throw new UserNotFoundException(userId);
+    /**
+     * Re-creates the in-memory search index from the database, reading tasks in chunks ordered by id.
+     */
+    public void rebuildTextIndex() {
+        textIndex.clear();
+        var keyset = Keyset.first(Keyset.ID, Sort.Direction.ASC);
+        List<Task> chunk;
+        do {
+            chunk = taskRepository.findNextBySearchParams(null, null, null, null, null, null, keyset, INDEX_REBUILD_CHUNK_SIZE);
+            chunk.forEach(textIndex::index);
+            if (!chunk.isEmpty()) {
+                keyset = keyset.after(null, chunk.get(chunk.size() - 1).getId().id());
             }
+        } while (chunk.size() == INDEX_REBUILD_CHUNK_SIZE);
+    }
+
+    private int deleteInChunks(List<UUID> taskIds) {
+        int deleted = 0;
+        for (var chunk : chunksOf(taskIds)) {
+            deleted += taskRepository.deleteAllInBulk(chunk);
+        }
+        if (deleted > 0) {
+            tasksChanged();
+            Transactions.afterCommit(() -> taskIds.forEach(taskId -> textIndex.remove(new TaskId(taskId))));
+        }
+        return deleted;
+    }
+
+    /**
+     * Splits the ids into lists of {@value #BULK_CHUNK_SIZE}, keeping the IN lists of bulk statements bounded.
+     */
+    private static List<List<UUID>> chunksOf(List<UUID> ids) {
+        final var chunks = new ArrayList<List<UUID>>();
+        for (int from = 0; from < ids.size(); from += BULK_CHUNK_SIZE) {
+            chunks.add(ids.subList(from, Math.min(from + BULK_CHUNK_SIZE, ids.size())));
+        }
+        return chunks;
+    }
+
+    /**
+     * Throws why a conditional update matched no task, which is only looked up once it failed.
+     */
+    private void failedUpdate(TaskId taskId, Long expectedVersion) throws TaskNotFoundException, TaskVersionMismatchException {
+        if (!taskRepository.existsById(taskId)) {
+            throw new TaskNotFoundException(taskId);
+        }
+        throw new TaskVersionMismatchException(taskId, expectedVersion);
+    }
+
+    /**
+     * Loads the lazy assignees (of a whole page per statement) while the session is open,
+     * as the tasks are mapped to responses after the read-only transaction ended.
+     */
+    private static <T extends Iterable<Task>> T withAssignees(T tasks) {
+        tasks.forEach(Task::getAssignedUsers);
+        return tasks;
+    }
+
+    /**
+     * Cached totals are dropped only once the change is committed, a count taken before that could be cached again.
+     */
+    private void tasksChanged() {
+        Transactions.afterCommit(() -> {
+            countCache.invalidateAll();
+            changes.changed();
+        });
+    }
+
+    private void validateUsersExist(Collection<UserId> userIds) throws UserNotFoundException {
+        final var missingUsers = findMissingUsers(userIds);
+        if (!missingUsers.isEmpty()) {
+            throw new UserNotFoundException(missingUsers);
+        }
+    }
+
+    /**
+     * Only users not yet known to exist are looked up, those found are remembered for the next time.
+     */
+    private Set<UserId> findMissingUsers(Collection<UserId> userIds) {
+        final var unknownUsers = knownUserIds.unknownOf(userIds);
+        if (unknownUsers.isEmpty()) {
+            return Set.of();
         }
+        final var missingUsers = userRepository.findMissingIds(unknownUsers);
+        unknownUsers.stream().filter(userId -> !missingUsers.contains(userId)).forEach(knownUserIds::add);
+        return missingUsers;
     }
 }
@@ -0,0 +1,9 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.domain.TaskId;
+
+public class TaskVersionMismatchException extends Exception {
+    public TaskVersionMismatchException(TaskId taskId, long expectedVersion) {
+        super(String.format("Task %s is no longer at version %d", taskId.toString(), expectedVersion));
+    }
+}
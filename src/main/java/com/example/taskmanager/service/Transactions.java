@@ -0,0 +1,27 @@
+package com.example.taskmanager.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+final class Transactions {
+
+    private Transactions() {
+    }
+
+    /**
+     * Runs the action once the current transaction commits, or right away when there is no transaction.
+     * Used for in-memory state that must not see changes which are rolled back later.
+     */
+    static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -2,8 +2,25 @@ package com.example.taskmanager.service;
 
 import com.example.taskmanager.domain.UserId;
 
+import java.util.Collection;
+import java.util.List;
+
 public class UserNotFoundException extends Exception {
+
+    private final List<UserId> userIds;
+
     public UserNotFoundException(UserId userId) {
-        super(String.format("User %s not found", userId.toString()));
+        this(List.of(userId));
+    }
+
+    public UserNotFoundException(Collection<UserId> userIds) {
+        super(userIds.size() == 1
+                ? String.format("User %s not found", userIds.iterator().next().toString())
+                : String.format("Users %s not found", userIds));
+        this.userIds = List.copyOf(userIds);
+    }
+
+    public List<UserId> getUserIds() {
+        return userIds;
     }
 }
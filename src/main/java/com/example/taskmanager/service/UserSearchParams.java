@@ -1,4 +1,16 @@
 package com.example.taskmanager.service;
 
+import java.util.Locale;
+
 public record UserSearchParams(String firstName, String lastName, String email) {
+
+    /**
+     * Text filters are matched case-insensitively, so searches differing only in their case are the same search.
+     */
+    UserSearchParams normalized() {
+        return new UserSearchParams(
+                firstName == null ? null : firstName.toLowerCase(Locale.ROOT),
+                lastName == null ? null : lastName.toLowerCase(Locale.ROOT),
+                email == null ? null : email.toLowerCase(Locale.ROOT));
+    }
 }
@@ -1,19 +1,60 @@
 package com.example.taskmanager.service;
 
+import com.example.taskmanager.db.Keyset;
 import com.example.taskmanager.db.UserRepository;
 import com.example.taskmanager.domain.User;
 import com.example.taskmanager.domain.UserId;
+import com.example.taskmanager.search.UserSearchIndex;
+import jakarta.validation.ConstraintViolationException;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public class UserService {
 
+    /**
+     * Cache of {@link #findUserById(UserId)}, evicted when a user is deleted.
+     */
+    public static final String USER_CACHE = "users";
+
+    private static final KeysetPaging<User> KEYSET_PAGING = new KeysetPaging<>(Map.<String, KeysetPaging.SortKey<User>>of(
+            "firstName", new KeysetPaging.SortKey<>(User::getFirstName, firstName -> firstName),
+            "lastName", new KeysetPaging.SortKey<>(User::getLastName, lastName -> lastName),
+            "email", new KeysetPaging.SortKey<>(User::getEmail, email -> email),
+            Keyset.ID, new KeysetPaging.SortKey<>(user -> null, id -> id)
+    ), user -> user.getId().id());
+    private static final int INDEX_REBUILD_CHUNK_SIZE = 1000;
+    private static final int EXPORT_CHUNK_SIZE = 1000;
+
     private final UserRepository repository;
+    private final SearchCountCache<UserSearchParams> countCache;
+    private final ChangeTracker changes = new ChangeTracker();
+    private final UserSearchIndex searchIndex;
+    private final KnownUserIds knownUserIds;
+    private final TaskService taskService;
 
-    public UserService(UserRepository repository) {
+    public UserService(UserRepository repository,
+                       Duration countCacheTtl,
+                       UserSearchIndex searchIndex,
+                       KnownUserIds knownUserIds,
+                       TaskService taskService) {
         this.repository = repository;
+        this.countCache = new SearchCountCache<>(countCacheTtl);
+        this.searchIndex = searchIndex;
+        this.knownUserIds = knownUserIds;
+        this.taskService = taskService;
     }
 
     public void addUser(User user) throws DomainObjectValidationException {
@@ -22,13 +63,76 @@ public class UserService {
         } catch (Exception e) {
             throw new DomainObjectValidationException(e.getMessage());
         }
+        usersChanged();
+        Transactions.afterCommit(() -> {
+            searchIndex.add(user);
+            knownUserIds.add(user.getId());
+        });
+    }
+
+    /**
+     * Inserts all users in a single transaction using JDBC batching, either all of them are stored or none.
+     *
+     * @throws DomainObjectValidationException if a user violates a bean or database constraint; other failures,
+     *                                         e.g. of the connection, are not caused by the users and are passed on
+     */
+    @Transactional(rollbackFor = DomainObjectValidationException.class)
+    public void addUsers(List<User> users) throws DomainObjectValidationException {
+        try {
+            repository.insertAll(users);
+        } catch (ConstraintViolationException | DataIntegrityViolationException e) {
+            throw new DomainObjectValidationException(e.getMessage());
+        }
+        usersChanged();
+        Transactions.afterCommit(() -> users.forEach(user -> {
+            searchIndex.add(user);
+            knownUserIds.add(user.getId());
+        }));
     }
 
+    /**
+     * Deletes the user together with its assignments to tasks.
+     */
+    @Transactional
+    @CacheEvict(cacheNames = USER_CACHE, key = "#userId")
     public void deleteUser(UserId userId) {
+        taskService.touchTasksOfUser(userId);
         repository.deleteById(userId);
+        usersChanged();
+        Transactions.afterCommit(() -> {
+            searchIndex.remove(userId);
+            knownUserIds.remove(userId);
+        });
     }
 
+    /**
+     * Version of all users which changes with every committed change, for revalidating search results.
+     * Read it before searching, so that a change committed meanwhile leads to a newer version.
+     */
+    public ChangeTracker.Version usersVersion() {
+        return changes.current();
+    }
+
+    /**
+     * Search including the total number of matching users. The count query is skipped when the total can be derived
+     * from the page itself, and otherwise cached briefly per normalized search.
+     */
+    @Transactional(readOnly = true)
     public Page<User> findUsers(UserSearchParams userSearchParams, Pageable pageable) {
+        final var content = findUserSlice(userSearchParams, pageable).getContent();
+        return PageableExecutionUtils.getPage(content, pageable, () -> countCache.get(userSearchParams.normalized(),
+                () -> repository.countBySearchParams(
+                        userSearchParams.firstName(),
+                        userSearchParams.lastName(),
+                        userSearchParams.email()
+                )));
+    }
+
+    /**
+     * Search without the total, only telling whether there is a next page.
+     */
+    @Transactional(readOnly = true)
+    public Slice<User> findUserSlice(UserSearchParams userSearchParams, Pageable pageable) {
         return repository.findBySearchParams(
                 userSearchParams.firstName(),
                 userSearchParams.lastName(),
@@ -37,7 +141,83 @@ public class UserService {
         );
     }
 
+    /**
+     * Keyset paginated variant of {@link #findUsers(UserSearchParams, Pageable)}, starting after the given cursor
+     * (or from the first user for an empty one) and skipping the count query.
+     *
+     * @throws IllegalArgumentException for an invalid cursor or a sort the cursor can't be built from
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<User> findUsers(UserSearchParams userSearchParams, String cursor, int size, Sort sort) {
+        final var keyset = KEYSET_PAGING.position(cursor, sort);
+        final var rows = repository.findNextBySearchParams(
+                userSearchParams.firstName(),
+                userSearchParams.lastName(),
+                userSearchParams.email(),
+                keyset,
+                size + 1
+        );
+        return KEYSET_PAGING.page(rows, size, keyset);
+    }
+
+    @Cacheable(cacheNames = USER_CACHE, unless = "#result == null")
+    @Transactional(readOnly = true)
     public Optional<User> findUserById(UserId userId) {
         return repository.findById(userId);
     }
+
+    /**
+     * Hands every user matching the search to the sink, ordered by id. Users are read from a single cursor in chunks
+     * of {@value #EXPORT_CHUNK_SIZE} which are detached once written, so memory use doesn't depend on the number of users.
+     */
+    @Transactional(readOnly = true)
+    public void exportUsers(UserSearchParams userSearchParams, ExportSink<User> sink) throws IOException {
+        try (var users = repository.streamBySearchParams(
+                userSearchParams.firstName(),
+                userSearchParams.lastName(),
+                userSearchParams.email(),
+                EXPORT_CHUNK_SIZE)) {
+            for (var iterator = users.iterator(); iterator.hasNext(); ) {
+                sink.accept(iterator.next());
+            }
+        }
+    }
+
+    /**
+     * Type-ahead lookup by a fragment of the name or email, answered from the in-memory index without a query.
+     */
+    public List<UserSearchIndex.Suggestion> suggestUsers(String query, int limit) {
+        return searchIndex.suggest(query, limit);
+    }
+
+    /**
+     * Re-creates the in-memory suggestion index and the set of known user ids from the database,
+     * reading users in chunks ordered by id.
+     */
+    public void rebuildIndexes() {
+        searchIndex.clear();
+        knownUserIds.clear();
+        var keyset = Keyset.first(Keyset.ID, Sort.Direction.ASC);
+        List<User> chunk;
+        do {
+            chunk = repository.findNextBySearchParams(null, null, null, keyset, INDEX_REBUILD_CHUNK_SIZE);
+            for (User user : chunk) {
+                searchIndex.add(user);
+                knownUserIds.add(user.getId());
+            }
+            if (!chunk.isEmpty()) {
+                keyset = keyset.after(null, chunk.get(chunk.size() - 1).getId().id());
+            }
+        } while (chunk.size() == INDEX_REBUILD_CHUNK_SIZE);
+    }
+
+    /**
+     * Cached totals are dropped only once the change is committed, a count taken before that could be cached again.
+     */
+    private void usersChanged() {
+        Transactions.afterCommit(() -> {
+            countCache.invalidateAll();
+            changes.changed();
+        });
+    }
 }
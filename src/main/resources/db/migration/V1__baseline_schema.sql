@@ -0,0 +1,27 @@
+-- Schema previously generated by Hibernate from the Task and User entities
+
+CREATE TABLE users
+(
+    id         UUID NOT NULL,
+    first_name VARCHAR(255),
+    last_name  VARCHAR(255),
+    email      VARCHAR(255),
+    CONSTRAINT pk_users PRIMARY KEY (id)
+);
+
+CREATE TABLE tasks
+(
+    id          UUID NOT NULL,
+    title       VARCHAR(255),
+    description VARCHAR(255),
+    deadline    TIMESTAMP(6),
+    task_status VARCHAR(255),
+    CONSTRAINT pk_tasks PRIMARY KEY (id)
+);
+
+CREATE TABLE task_assigned_users
+(
+    task_id        UUID NOT NULL,
+    assigned_users VARCHAR(255),
+    CONSTRAINT fk_task_assigned_users_task FOREIGN KEY (task_id) REFERENCES tasks (id)
+);
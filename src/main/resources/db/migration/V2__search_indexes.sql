@@ -0,0 +1,18 @@
+-- Indexes for the predicates of TaskSearchRepository and UserSearchRepository.
+-- Contains-matches (LIKE '%...%') on title, description and the user names can't use a B-tree index,
+-- the in-memory search indexes cover those.
+
+-- status alone, status with a deadline range and the deadline sort of a status filter
+CREATE INDEX idx_tasks_status_deadline ON tasks (task_status, deadline);
+
+-- deadline range without a status and keyset pages sorted by deadline
+CREATE INDEX idx_tasks_deadline ON tasks (deadline);
+
+-- tasks of an assignee; includes task_id so the lookup never touches the table rows
+CREATE INDEX idx_task_assigned_users_user ON task_assigned_users (assigned_users, task_id);
+
+-- loading the assignees of a page of tasks, also backs the foreign key
+CREATE INDEX idx_task_assigned_users_task ON task_assigned_users (task_id);
+
+-- exact lookups and keyset pages sorted by email
+CREATE INDEX idx_users_email ON users (email);
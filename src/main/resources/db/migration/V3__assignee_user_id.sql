@@ -0,0 +1,6 @@
+-- Native UUID form of the assignee, computed by the database from the string column mapped by Task,
+-- so the tasks of a user are an index range scan on a 16 byte key
+
+ALTER TABLE task_assigned_users ADD COLUMN user_id UUID GENERATED ALWAYS AS (CAST(assigned_users AS UUID));
+
+CREATE INDEX idx_task_assigned_users_user_id ON task_assigned_users (user_id, task_id);
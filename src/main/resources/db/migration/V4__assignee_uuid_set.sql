@@ -0,0 +1,24 @@
+-- Assignees become a set of native UUIDs: the string column is replaced by the UUID one,
+-- duplicates are dropped and the (task, user) pair becomes the primary key
+
+CREATE TABLE task_assignees_migration
+(
+    task_id UUID NOT NULL,
+    user_id UUID NOT NULL
+);
+
+INSERT INTO task_assignees_migration (task_id, user_id)
+SELECT DISTINCT task_id, user_id
+FROM task_assigned_users
+WHERE user_id IS NOT NULL;
+
+DROP TABLE task_assigned_users;
+
+ALTER TABLE task_assignees_migration RENAME TO task_assigned_users;
+
+-- also serves loading the assignees of a page of tasks and the foreign key
+ALTER TABLE task_assigned_users ADD CONSTRAINT pk_task_assigned_users PRIMARY KEY (task_id, user_id);
+
+ALTER TABLE task_assigned_users ADD CONSTRAINT fk_task_assigned_users_task FOREIGN KEY (task_id) REFERENCES tasks (id);
+
+CREATE INDEX idx_task_assigned_users_user_id ON task_assigned_users (user_id, task_id);
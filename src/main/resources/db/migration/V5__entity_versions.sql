@@ -0,0 +1,7 @@
+-- Version and modification time of every row, the base of ETag and Last-Modified headers
+
+ALTER TABLE tasks ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE tasks ADD COLUMN last_modified TIMESTAMP(6) WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP NOT NULL;
+
+ALTER TABLE users ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE users ADD COLUMN last_modified TIMESTAMP(6) WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP NOT NULL;
@@ -0,0 +1,14 @@
+-- Assignments go away together with their task or user: deleting either removes the rows of task_assigned_users
+-- in the same statement, so neither bulk deletes nor user deletion leave dangling assignees behind
+
+DELETE FROM task_assigned_users a
+WHERE NOT EXISTS (SELECT 1 FROM users u WHERE u.id = a.user_id);
+
+ALTER TABLE task_assigned_users DROP CONSTRAINT fk_task_assigned_users_task;
+
+ALTER TABLE task_assigned_users ADD CONSTRAINT fk_task_assigned_users_task
+    FOREIGN KEY (task_id) REFERENCES tasks (id) ON DELETE CASCADE;
+
+-- served by idx_task_assigned_users_user_id
+ALTER TABLE task_assigned_users ADD CONSTRAINT fk_task_assigned_users_user
+    FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE;
@@ -0,0 +1,3 @@
+-- Cursor pages sorted by title: the row value comparison on (title, id) seeks into this index and the rows come out
+-- in page order, so a deep page reads no more rows than the first one. Also serves the null tail (title IS NULL).
+CREATE INDEX idx_tasks_title_id ON tasks (title, id);
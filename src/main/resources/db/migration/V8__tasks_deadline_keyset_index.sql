@@ -0,0 +1,5 @@
+-- Cursor pages sorted by deadline seek by (deadline, id), so the id is added as the tiebreaker of the deadline index.
+-- Deadline ranges without a status filter use its leading column like they used idx_tasks_deadline.
+CREATE INDEX idx_tasks_deadline_id ON tasks (deadline, id);
+
+DROP INDEX idx_tasks_deadline;
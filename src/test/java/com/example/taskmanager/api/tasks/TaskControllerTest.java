@@ -4,28 +4,50 @@ import com.example.taskmanager.domain.Task;
 import com.example.taskmanager.domain.TaskId;
 import com.example.taskmanager.domain.TaskStatus;
 import com.example.taskmanager.domain.UserId;
+import com.example.taskmanager.service.ChangeTracker;
+import com.example.taskmanager.service.CursorPage;
+import com.example.taskmanager.service.ExportSink;
+import com.example.taskmanager.service.TaskBatchOutcome;
 import com.example.taskmanager.service.TaskSearchParams;
 import com.example.taskmanager.service.TaskService;
+import com.example.taskmanager.service.TaskVersionMismatchException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(TaskController.class)
@@ -60,6 +82,67 @@ class TaskControllerTest {
         verify(taskService).addTask(Task.create(new TaskId(UUID.fromString(id)), request.title(), request.description(), request.deadline(), List.of()));
     }
 
+    @Test
+    void should_create_tasks_in_batch() throws Exception {
+        // Given
+        final var requests = List.of(
+                new TaskCreationRequest("Fix bug", "Fix issue #1", LocalDateTime.now().plusDays(1), List.of()),
+                new TaskCreationRequest("", "Missing title", null, List.of()),
+                new TaskCreationRequest("Fix another bug", "Fix issue #2", null, List.of(UUID.randomUUID())));
+        final var requestJson = objectMapper.writeValueAsString(requests);
+
+        when(taskService.addTasks(anyList())).thenAnswer(invocation -> {
+            final List<Task> tasks = invocation.getArgument(0);
+            return List.of(
+                    TaskBatchOutcome.created(tasks.get(0).getId()),
+                    TaskBatchOutcome.rejected(tasks.get(1).getId(), "User not found"));
+        });
+
+        // When & Then
+        mockMvc.perform(post("/api/tasks/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestJson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].index").value(0))
+                .andExpect(jsonPath("$[0].status").value(201))
+                .andExpect(jsonPath("$[1].index").value(1))
+                .andExpect(jsonPath("$[1].status").value(400))
+                .andExpect(jsonPath("$[2].index").value(2))
+                .andExpect(jsonPath("$[2].status").value(404))
+                .andExpect(jsonPath("$[2].error").value("User not found"));
+    }
+
+    @Test
+    void should_reject_only_invalid_tasks_of_batch() throws Exception {
+        // Given
+        final var requests = List.of(
+                new TaskCreationRequest("Fix bug", "Fix issue #1", LocalDateTime.now().plusDays(1), List.of()),
+                new TaskCreationRequest("x".repeat(256), "Title too long", null, List.of()),
+                new TaskCreationRequest("Fix another bug", "Deadline passed", LocalDateTime.now().minusDays(1), List.of()));
+        final var requestJson = objectMapper.writeValueAsString(requests);
+
+        when(taskService.addTasks(anyList())).thenAnswer(invocation -> {
+            final List<Task> tasks = invocation.getArgument(0);
+            return tasks.stream().map(task -> TaskBatchOutcome.created(task.getId())).toList();
+        });
+
+        // When & Then
+        mockMvc.perform(post("/api/tasks/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestJson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value(201))
+                .andExpect(jsonPath("$[1].status").value(400))
+                .andExpect(jsonPath("$[1].error").value("title: size must be between 0 and 255"))
+                .andExpect(jsonPath("$[2].status").value(400))
+                .andExpect(jsonPath("$[2].error").value("deadline: must be a future date"));
+
+        final var captor = ArgumentCaptor.forClass(List.class);
+        verify(taskService).addTasks(captor.capture());
+        assertEquals(1, captor.getValue().size());
+    }
+
     @Test
     void should_delete_task() throws Exception {
         // Given
@@ -95,7 +178,7 @@ class TaskControllerTest {
                         .content(requestJson))
                 .andExpect(status().isNoContent());
 
-        verify(taskService).changeStatus(taskId, TaskStatus.Completed);
+        verify(taskService).changeStatus(taskId, TaskStatus.Completed, null);
     }
 
     @Test
@@ -112,7 +195,7 @@ class TaskControllerTest {
                         .content(requestJson))
                 .andExpect(status().isNoContent());
 
-        verify(taskService).assignUsers(taskId, userIds);
+        verify(taskService).assignUsers(taskId, userIds, null);
     }
 
     @Test
@@ -129,7 +212,171 @@ class TaskControllerTest {
                         .content(taskJson))
                 .andExpect(status().isNoContent());
 
-        verify(taskService).editTask(taskId, dto);
+        verify(taskService).editTask(taskId, dto, null);
+    }
+
+    @Test
+    void should_change_status_of_tasks_by_filter() throws Exception {
+        // Given
+        final var userId = UserId.generate();
+        final var request = new BulkStatusChangeRequest(null,
+                new TaskFilter(null, null, TaskStatus.Active, null, null, userId.id()), TaskStatus.Completed);
+        when(taskService.changeStatusOfMatching(new TaskSearchParams(null, null, TaskStatus.Active, null, null, userId), TaskStatus.Completed))
+                .thenReturn(42);
+
+        // When & Then
+        mockMvc.perform(patch("/api/tasks/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affectedTasks").value(42));
+    }
+
+    @Test
+    void should_change_status_of_tasks_by_id() throws Exception {
+        // Given
+        final var taskIds = List.of(TaskId.generate(), TaskId.generate());
+        final var request = new BulkStatusChangeRequest(taskIds.stream().map(TaskId::id).toList(), null, TaskStatus.Completed);
+        when(taskService.changeStatusOfAll(taskIds, TaskStatus.Completed)).thenReturn(2);
+
+        // When & Then
+        mockMvc.perform(patch("/api/tasks/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affectedTasks").value(2));
+    }
+
+    @Test
+    void should_return_400_for_bulk_status_change_with_ids_and_filter() throws Exception {
+        // Given
+        final var request = new BulkStatusChangeRequest(List.of(UUID.randomUUID()),
+                new TaskFilter(null, null, null, null, null, null), TaskStatus.Completed);
+
+        // When & Then
+        mockMvc.perform(patch("/api/tasks/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void should_return_400_for_bulk_status_change_with_empty_filter() throws Exception {
+        // Given
+        final var request = new BulkStatusChangeRequest(null, new TaskFilter(null, null, null, null, null, null), TaskStatus.Completed);
+
+        // When & Then
+        mockMvc.perform(patch("/api/tasks/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+
+        verify(taskService, never()).changeStatusOfMatching(any(), any());
+    }
+
+    @Test
+    void should_return_400_for_bulk_status_change_with_null_task_id() throws Exception {
+        // When & Then
+        mockMvc.perform(patch("/api/tasks/status")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"taskIds": ["%s", null], "status": "Completed"}
+                                """.formatted(UUID.randomUUID())))
+                .andExpect(status().isBadRequest());
+
+        verify(taskService, never()).changeStatusOfAll(any(), any());
+    }
+
+    @Test
+    void should_delete_tasks_by_filter() throws Exception {
+        // Given
+        final var request = new BulkDeleteRequest(null, new TaskFilter(null, null, TaskStatus.Completed, null, null, null));
+        when(taskService.deleteMatchingTasks(new TaskSearchParams(null, null, TaskStatus.Completed, null, null, null)))
+                .thenReturn(7);
+
+        // When & Then
+        mockMvc.perform(delete("/api/tasks")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.affectedTasks").value(7));
+    }
+
+    @Test
+    void should_return_400_for_bulk_delete_with_empty_filter() throws Exception {
+        // Given
+        final var request = new BulkDeleteRequest(null, new TaskFilter(null, null, null, null, null, null));
+
+        // When & Then
+        mockMvc.perform(delete("/api/tasks")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+
+        verify(taskService, never()).deleteMatchingTasks(any());
+    }
+
+    @Test
+    void should_change_task_status_at_version_of_if_match() throws Exception {
+        // Given
+        final var taskId = TaskId.generate();
+        final var requestJson = objectMapper.writeValueAsString(new TaskStatusChangeRequest(TaskStatus.Completed));
+
+        // When & Then
+        mockMvc.perform(patch("/api/tasks/" + taskId.id() + "/status")
+                        .header("If-Match", "\"4\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestJson))
+                .andExpect(status().isNoContent());
+
+        verify(taskService).changeStatus(taskId, TaskStatus.Completed, 4L);
+    }
+
+    @Test
+    void should_return_412_for_outdated_if_match() throws Exception {
+        // Given
+        final var taskId = TaskId.generate();
+        final var requestJson = objectMapper.writeValueAsString(new TaskStatusChangeRequest(TaskStatus.Completed));
+        doThrow(new TaskVersionMismatchException(taskId, 4L))
+                .when(taskService).changeStatus(taskId, TaskStatus.Completed, 4L);
+
+        // When & Then
+        mockMvc.perform(patch("/api/tasks/" + taskId.id() + "/status")
+                        .header("If-Match", "\"4\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestJson))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void should_return_412_for_if_match_of_no_version() throws Exception {
+        // Given
+        final var taskId = TaskId.generate();
+        final var request = new EditTaskRequest("Updated title", null, null, List.of());
+
+        // When & Then
+        mockMvc.perform(put("/api/tasks/" + taskId.id())
+                        .header("If-Match", "W/\"4\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isPreconditionFailed());
+
+        verify(taskService, never()).editTask(any(), any(), any());
+    }
+
+    @Test
+    void should_return_409_for_concurrent_edit_without_if_match() throws Exception {
+        // Given
+        final var taskId = TaskId.generate();
+        final var request = new EditTaskRequest("Updated title", null, null, List.of());
+        doThrow(new ObjectOptimisticLockingFailureException(Task.class, taskId))
+                .when(taskService).editTask(eq(taskId), any(), isNull());
+
+        // When & Then
+        mockMvc.perform(put("/api/tasks/" + taskId.id())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isConflict());
     }
 
     @Test
@@ -140,6 +387,7 @@ class TaskControllerTest {
                 LocalDateTime.now(), List.of());
         final var page = new PageImpl<>(List.of(task));
 
+        when(taskService.tasksVersion()).thenReturn(new ChangeTracker.Version("1-0", Instant.EPOCH));
         when(taskService.findTasks(any(TaskSearchParams.class), any(Pageable.class)))
                 .thenReturn(page);
 
@@ -158,15 +406,143 @@ class TaskControllerTest {
                         .param("page", "0")
                         .param("size", "10"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-0\""))
                 .andExpect(content().json(jsonContent));
     }
 
+    @Test
+    void should_not_search_again_when_tasks_did_not_change() throws Exception {
+        // Given
+        when(taskService.tasksVersion()).thenReturn(new ChangeTracker.Version("1-0", Instant.EPOCH));
+
+        // When & Then
+        mockMvc.perform(get("/api/tasks")
+                        .header("If-None-Match", "\"1-0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(taskService, never()).findTasks(any(TaskSearchParams.class), any(Pageable.class));
+    }
+
+    @Test
+    void should_search_tasks_by_text() throws Exception {
+        // Given
+        final var task = Task.create(TaskId.generate(), "Fix login bug", "Description", LocalDateTime.now(), List.of());
+
+        when(taskService.searchTasks(eq("login"), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(task)));
+
+        // When & Then
+        mockMvc.perform(get("/api/tasks/search").param("q", "login"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(task.getId().id().toString()))
+                .andExpect(jsonPath("$.content[0].title").value("Fix login bug"));
+    }
+
+    @Test
+    void should_find_tasks_without_total() throws Exception {
+        // Given
+        final var task = Task.create(TaskId.generate(), "Test task", "Description", LocalDateTime.now(), List.of());
+
+        when(taskService.tasksVersion()).thenReturn(new ChangeTracker.Version("1-0", Instant.EPOCH));
+        when(taskService.findTaskSlice(any(TaskSearchParams.class), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(task), PageRequest.of(0, 1), true));
+
+        // When & Then
+        mockMvc.perform(get("/api/tasks")
+                        .param("withTotal", "false")
+                        .param("page", "0")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-0\""))
+                .andExpect(jsonPath("$.content[0].id").value(task.getId().id().toString()))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+    }
+
+    @Test
+    void should_find_tasks_by_cursor() throws Exception {
+        // Given
+        final var task = Task.create(TaskId.generate(), "Test task", "Description", LocalDateTime.now(), List.of());
+
+        when(taskService.tasksVersion()).thenReturn(new ChangeTracker.Version("1-0", Instant.EPOCH));
+        when(taskService.findTasks(any(TaskSearchParams.class), eq("abc"), eq(10), eq(Sort.by("title"))))
+                .thenReturn(new CursorPage<>(List.of(task), "def"));
+
+        // When & Then
+        mockMvc.perform(get("/api/tasks")
+                        .param("title", "Test")
+                        .param("cursor", "abc")
+                        .param("size", "10")
+                        .param("sort", "title"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-0\""))
+                .andExpect(jsonPath("$.content[0].id").value(task.getId().id().toString()))
+                .andExpect(jsonPath("$.nextCursor").value("def"));
+    }
+
+    @Test
+    void should_not_search_without_total_again_when_tasks_did_not_change() throws Exception {
+        // Given
+        when(taskService.tasksVersion()).thenReturn(new ChangeTracker.Version("1-0", Instant.EPOCH));
+
+        // When & Then
+        mockMvc.perform(get("/api/tasks")
+                        .param("withTotal", "false")
+                        .header("If-None-Match", "\"1-0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(taskService, never()).findTaskSlice(any(TaskSearchParams.class), any(Pageable.class));
+    }
+
+    @Test
+    void should_not_page_by_cursor_again_when_tasks_did_not_change() throws Exception {
+        // Given
+        when(taskService.tasksVersion()).thenReturn(new ChangeTracker.Version("1-0", Instant.EPOCH));
+
+        // When & Then
+        mockMvc.perform(get("/api/tasks")
+                        .param("cursor", "abc")
+                        .header("If-None-Match", "\"1-0\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(taskService, never()).findTasks(any(TaskSearchParams.class), any(), anyInt(), any());
+    }
+
+    @Test
+    void should_return_400_for_invalid_cursor() throws Exception {
+        // Given
+        when(taskService.tasksVersion()).thenReturn(new ChangeTracker.Version("1-0", Instant.EPOCH));
+        when(taskService.findTasks(any(TaskSearchParams.class), eq("broken"), eq(20), any(Sort.class)))
+                .thenThrow(new IllegalArgumentException("Invalid cursor broken"));
+
+        // When & Then
+        mockMvc.perform(get("/api/tasks").param("cursor", "broken"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void should_return_304_for_unchanged_task() throws Exception {
+        // Given
+        final var taskId = TaskId.generate();
+        final var task = stored(Task.create(taskId, "Test task", null, null, List.of()), 3);
+        when(taskService.findById(taskId)).thenReturn(Optional.of(task));
+
+        // When & Then
+        mockMvc.perform(get("/api/tasks/" + taskId.id())
+                        .header("If-None-Match", "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
     @Test
     void should_find_task_by_id() throws Exception {
         // Given
         final var taskId = TaskId.generate();
-        final var task = Task.create(taskId, "Test task", "Description",
-                LocalDateTime.now(), List.of());
+        final var task = stored(Task.create(taskId, "Test task", "Description",
+                LocalDateTime.now(), List.of()), 1);
 
         when(taskService.findById(any(TaskId.class)))
                 .thenReturn(Optional.of(task));
@@ -186,6 +562,66 @@ class TaskControllerTest {
                         .param("page", "0")
                         .param("size", "10"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1\""))
                 .andExpect(content().json(jsonContent));
     }
-}
\ No newline at end of file
+
+    @Test
+    void should_export_matching_tasks_as_ndjson() throws Exception {
+        // Given
+        final var assignee = UserId.generate();
+        final var first = Task.create(TaskId.generate(), "First", "Description", null, List.of(assignee));
+        final var second = Task.create(TaskId.generate(), "Second", null, null, List.of());
+        doAnswer(invocation -> {
+            final ExportSink<Task> sink = invocation.getArgument(1);
+            sink.accept(first);
+            sink.accept(second);
+            return null;
+        }).when(taskService).exportTasks(eq(new TaskSearchParams(null, null, TaskStatus.New, null, null, null)), any());
+
+        // When & Then
+        mockMvc.perform(get("/api/tasks/export").param("taskStatus", "New"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andExpect(content().string(
+                        "{\"id\":\"" + first.getId().id() + "\",\"title\":\"First\",\"description\":\"Description\",\"deadline\":null,\"taskStatus\":\"New\",\"users\":[\"" + assignee.id() + "\"]}\n"
+                        + "{\"id\":\"" + second.getId().id() + "\",\"title\":\"Second\",\"description\":null,\"deadline\":null,\"taskStatus\":\"New\",\"users\":[]}\n"));
+    }
+
+    @Test
+    void should_export_tasks_as_csv() throws Exception {
+        // Given
+        final var assignees = List.of(UserId.generate(), UserId.generate());
+        final var task = Task.create(TaskId.generate(), "Fix \"login\", again", null,
+                LocalDateTime.parse("2030-01-02T10:00:00"), assignees);
+        doAnswer(invocation -> {
+            final ExportSink<Task> sink = invocation.getArgument(1);
+            sink.accept(task);
+            return null;
+        }).when(taskService).exportTasks(any(), any());
+
+        // When & Then
+        mockMvc.perform(get("/api/tasks/export").param("format", "csv"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"tasks.csv\""))
+                .andExpect(content().string("id,title,description,deadline,taskStatus,users\r\n"
+                        + task.getId().id() + ",\"Fix \"\"login\"\", again\",,2030-01-02T10:00,New,"
+                        + assignees.get(0).id() + " " + assignees.get(1).id() + "\r\n"));
+    }
+
+    @Test
+    void should_return_400_for_unknown_export_format() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/tasks/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+
+        verify(taskService, never()).exportTasks(any(), any());
+    }
+
+    private static Task stored(Task task, long version) {
+        ReflectionTestUtils.setField(task, "version", version);
+        ReflectionTestUtils.setField(task, "lastModified", Instant.parse("2025-01-01T12:00:00Z"));
+        return task;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.taskmanager.api.tasks;
+
+import com.example.taskmanager.domain.Task;
+import com.example.taskmanager.domain.TaskId;
+import com.example.taskmanager.domain.TaskStatus;
+import com.example.taskmanager.domain.UserId;
+import com.example.taskmanager.service.TaskService;
+import com.example.taskmanager.service.UserNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(UserTasksController.class)
+class UserTasksControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private TaskService taskService;
+
+    @Test
+    void should_find_tasks_of_user() throws Exception {
+        // Given
+        final var userId = UserId.generate();
+        final var task = Task.create(TaskId.generate(), "Task 1", null, null, List.of(userId));
+        when(taskService.findTasksOfUser(eq(userId), eq(TaskStatus.Active), any()))
+                .thenReturn(new PageImpl<>(List.of(task)));
+
+        // When & Then
+        mockMvc.perform(get("/api/users/" + userId.id() + "/tasks")
+                        .param("taskStatus", "Active"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(task.getId().id().toString()))
+                .andExpect(jsonPath("$.content[0].users[0]").value(userId.id().toString()));
+    }
+
+    @Test
+    void should_return_404_for_missing_user() throws Exception {
+        // Given
+        final var userId = UserId.generate();
+        when(taskService.findTasksOfUser(eq(userId), eq(null), any())).thenThrow(new UserNotFoundException(userId));
+
+        // When & Then
+        mockMvc.perform(get("/api/users/" + userId.id() + "/tasks"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void should_return_400_for_bad_user_id() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/users/invalid-id/tasks"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -2,23 +2,41 @@ package com.example.taskmanager.api.users;
 
 import com.example.taskmanager.domain.User;
 import com.example.taskmanager.domain.UserId;
+import com.example.taskmanager.search.UserSearchIndex;
+import com.example.taskmanager.service.ChangeTracker;
+import com.example.taskmanager.service.CursorPage;
+import com.example.taskmanager.service.DomainObjectValidationException;
+import com.example.taskmanager.service.ExportSink;
 import com.example.taskmanager.service.UserSearchParams;
 import com.example.taskmanager.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -55,6 +73,65 @@ class UserControllerTest {
         verify(userService).addUser(User.create(new UserId(UUID.fromString(id)), request.firstName(), request.lastName(), request.email()));
     }
 
+    @Test
+    void should_import_users_from_ndjson() throws Exception {
+        // Given
+        final var body = """
+                {"firstName": "Alice", "lastName": "Smith", "email": "as@acme.com"}
+                {"firstName": "", "lastName": "Nakamoto", "email": "bn@acme.com"}
+                not a json
+
+                {"firstName": "Bob", "lastName": "Nakamoto", "email": "bob@acme.com"}
+                {"firstName": "Carol", "lastName": "Jones", "email": "carol at acme"}
+                """;
+
+        // When & Then
+        mockMvc.perform(post("/api/users/import")
+                        .contentType("application/x-ndjson")
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted").value(2))
+                .andExpect(jsonPath("$.rejected").value(3))
+                .andExpect(jsonPath("$.errors[0].line").value(2))
+                .andExpect(jsonPath("$.errors[1].line").value(3))
+                .andExpect(jsonPath("$.errors[2].line").value(6))
+                .andExpect(jsonPath("$.errors[2].message").value("email: must be a well-formed email address"));
+
+        final var captor = ArgumentCaptor.forClass(List.class);
+        verify(userService).addUsers(captor.capture());
+        assertEquals(2, captor.getValue().size());
+    }
+
+    @Test
+    void should_reject_only_rows_failing_to_store_when_chunk_fails() throws Exception {
+        // Given
+        final var body = """
+                {"firstName": "Alice", "lastName": "Smith", "email": "as@acme.com"}
+                {"firstName": "Bob", "lastName": "Nakamoto", "email": "bob@acme.com"}
+                {"firstName": "Carol", "lastName": "Jones", "email": "carol@acme.com"}
+                """;
+        doAnswer(invocation -> {
+            final List<User> users = invocation.getArgument(0);
+            if (users.stream().anyMatch(user -> user.getFirstName().equals("Bob"))) {
+                throw new DomainObjectValidationException("Value too long for column");
+            }
+            return null;
+        }).when(userService).addUsers(anyList());
+
+        // When & Then
+        mockMvc.perform(post("/api/users/import")
+                        .contentType("application/x-ndjson")
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted").value(2))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.errors.length()").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(2))
+                .andExpect(jsonPath("$.errors[0].message").value("Value too long for column"));
+
+        verify(userService, times(4)).addUsers(anyList());
+    }
+
     @Test
     void should_delete_user() throws Exception {
         // Given
@@ -84,6 +161,7 @@ class UserControllerTest {
         final var user = User.create(userId, "Alice", "Smith", "as@acme.com");
         final var page = new PageImpl<>(List.of(user));
 
+        when(userService.usersVersion()).thenReturn(new ChangeTracker.Version("1-0", Instant.EPOCH));
         when(userService.findUsers(any(UserSearchParams.class), any(Pageable.class)))
                 .thenReturn(page);
 
@@ -104,6 +182,8 @@ class UserControllerTest {
         // Given
         final var userId = UserId.generate();
         final var user = User.create(userId, "Alice", "Smith", "as@acme.com");
+        ReflectionTestUtils.setField(user, "version", 0L);
+        ReflectionTestUtils.setField(user, "lastModified", Instant.parse("2025-01-01T12:00:00Z"));
 
         when(userService.findUserById(any(UserId.class))).thenReturn(Optional.of(user));
 
@@ -111,8 +191,123 @@ class UserControllerTest {
         final var jsonContent = objectMapper.writeValueAsString(
                 new UserResponse(user.getId().id().toString(), user.getFirstName(), user.getLastName(), user.getEmail()));
         mockMvc.perform(get("/api/users/" + userId.id().toString()))
+                .andExpect(header().string("ETag", "\"0\""))
                 .andExpect(content().json(jsonContent));
     }
 
+    @Test
+    void should_not_search_again_when_users_did_not_change() throws Exception {
+        // Given
+        when(userService.usersVersion()).thenReturn(new ChangeTracker.Version("1-0", Instant.EPOCH));
+
+        // When & Then
+        mockMvc.perform(get("/api/users")
+                        .header("If-None-Match", "\"1-0\""))
+                .andExpect(status().isNotModified());
+
+        verify(userService, never()).findUsers(any(UserSearchParams.class), any(Pageable.class));
+    }
+
+    @Test
+    void should_find_users_without_total() throws Exception {
+        // Given
+        final var user = User.create(UserId.generate(), "Alice", "Smith", "alice@acme.com");
+        when(userService.usersVersion()).thenReturn(new ChangeTracker.Version("1-0", Instant.EPOCH));
+        when(userService.findUserSlice(any(UserSearchParams.class), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(List.of(user), PageRequest.of(0, 1), true));
+
+        // When & Then
+        mockMvc.perform(get("/api/users")
+                        .param("withTotal", "false")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-0\""))
+                .andExpect(jsonPath("$.content[0].id").value(user.getId().id().toString()))
+                .andExpect(jsonPath("$.hasNext").value(true));
+    }
+
+    @Test
+    void should_not_search_without_total_again_when_users_did_not_change() throws Exception {
+        // Given
+        when(userService.usersVersion()).thenReturn(new ChangeTracker.Version("1-0", Instant.EPOCH));
+
+        // When & Then
+        mockMvc.perform(get("/api/users")
+                        .param("withTotal", "false")
+                        .header("If-None-Match", "\"1-0\""))
+                .andExpect(status().isNotModified());
+
+        verify(userService, never()).findUserSlice(any(UserSearchParams.class), any(Pageable.class));
+    }
+
+    @Test
+    void should_find_users_by_cursor() throws Exception {
+        // Given
+        final var user = User.create(UserId.generate(), "Alice", "Smith", "alice@acme.com");
+        when(userService.usersVersion()).thenReturn(new ChangeTracker.Version("1-0", Instant.EPOCH));
+        when(userService.findUsers(any(UserSearchParams.class), eq("abc"), eq(10), eq(Sort.by("lastName"))))
+                .thenReturn(new CursorPage<>(List.of(user), "def"));
+
+        // When & Then
+        mockMvc.perform(get("/api/users")
+                        .param("cursor", "abc")
+                        .param("size", "10")
+                        .param("sort", "lastName"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"1-0\""))
+                .andExpect(jsonPath("$.content[0].id").value(user.getId().id().toString()))
+                .andExpect(jsonPath("$.nextCursor").value("def"));
+    }
+
+    @Test
+    void should_not_page_by_cursor_again_when_users_did_not_change() throws Exception {
+        // Given
+        when(userService.usersVersion()).thenReturn(new ChangeTracker.Version("1-0", Instant.EPOCH));
+
+        // When & Then
+        mockMvc.perform(get("/api/users")
+                        .param("cursor", "abc")
+                        .header("If-None-Match", "\"1-0\""))
+                .andExpect(status().isNotModified());
+
+        verify(userService, never()).findUsers(any(UserSearchParams.class), any(), anyInt(), any());
+    }
+
+    @Test
+    void should_suggest_users() throws Exception {
+        // Given
+        final var userId = UserId.generate();
+        when(userService.suggestUsers(eq("smi"), eq(5)))
+                .thenReturn(List.of(new UserSearchIndex.Suggestion(userId, "Alice Smith")));
+
+        // When & Then
+        mockMvc.perform(get("/api/users/suggest")
+                        .param("q", "smi")
+                        .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(userId.id().toString()))
+                .andExpect(jsonPath("$[0].displayName").value("Alice Smith"))
+                .andExpect(jsonPath("$[0].email").doesNotExist());
+    }
+
     // above are happy path tests, but I am aware of multiple negative cases that could be covered here
-}
\ No newline at end of file
+
+    @Test
+    void should_export_users_as_csv() throws Exception {
+        // Given
+        final var alice = User.create(UserId.generate(), "Alice", "Smith, Jr.", "alice@acme.com");
+        doAnswer(invocation -> {
+            final ExportSink<User> sink = invocation.getArgument(1);
+            sink.accept(alice);
+            return null;
+        }).when(userService).exportUsers(eq(new UserSearchParams("Alice", null, null)), any());
+
+        // When & Then
+        mockMvc.perform(get("/api/users/export").param("firstName", "Alice").param("format", "csv"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"users.csv\""))
+                .andExpect(content().string("id,firstName,lastName,email\r\n"
+                        + alice.getId().id() + ",Alice,\"Smith, Jr.\",alice@acme.com\r\n"));
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.taskmanager.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// a second in-memory database stands in for the replica
+@SpringBootTest(properties = "taskmanager.datasource.read.url=jdbc:h2:mem:replica")
+class DataSourceConfigTest {
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void should_route_read_only_transactions_to_read_database() {
+        // given
+        final var readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        final var readWrite = new TransactionTemplate(transactionManager);
+
+        // when
+        final var readDatabase = readOnly.execute(status -> currentDatabase());
+        final var writeDatabase = readWrite.execute(status -> currentDatabase());
+
+        // then
+        assertEquals("replica", readDatabase);
+        assertEquals("test", writeDatabase);
+    }
+
+    private String currentDatabase() {
+        return jdbcTemplate.queryForObject("CALL DATABASE()", String.class).toLowerCase(Locale.ROOT);
+    }
+}
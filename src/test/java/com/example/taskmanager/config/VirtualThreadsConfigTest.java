@@ -0,0 +1,60 @@
+package com.example.taskmanager.config;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "spring.threads.virtual.enabled=true")
+class VirtualThreadsConfigTest {
+
+    // many more than the connections of the pool, so most of them wait for one
+    private static final int CONCURRENT_QUERIES = 200;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void should_not_pin_virtual_threads_while_waiting_for_and_using_connections() throws Exception {
+        // given
+        final List<RecordedEvent> pinnedEvents;
+        try (var recording = new Recording()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+            recording.start();
+
+            // when
+            final var results = new ArrayList<Future<Long>>();
+            try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < CONCURRENT_QUERIES; i++) {
+                    results.add(executor.submit(() -> jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tasks", Long.class)));
+                }
+            }
+            for (var result : results) {
+                result.get();
+            }
+            recording.stop();
+            final var file = Files.createTempFile("virtual-thread-pinning", ".jfr");
+            try {
+                recording.dump(file);
+                pinnedEvents = RecordingFile.readAllEvents(file);
+            } finally {
+                Files.delete(file);
+            }
+        }
+
+        // then
+        assertTrue(pinnedEvents.isEmpty(), () -> "Virtual threads were pinned:\n" + pinnedEvents);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.taskmanager.db;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ConcurrencyLimitingDataSourceTest {
+
+    @Mock
+    private DataSource target;
+    @Mock
+    private Connection connection;
+
+    @Test
+    void should_not_hand_out_more_connections_than_permitted() throws Exception {
+        // Given
+        when(target.getConnection()).thenReturn(connection);
+        final var dataSource = new ConcurrencyLimitingDataSource(target, 1, Duration.ofMillis(10));
+        dataSource.getConnection();
+
+        // When & then
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+    }
+
+    @Test
+    void should_release_permit_once_connection_is_closed() throws Exception {
+        // Given
+        when(target.getConnection()).thenReturn(connection);
+        final var dataSource = new ConcurrencyLimitingDataSource(target, 1, Duration.ofMillis(10));
+        final var first = dataSource.getConnection();
+
+        // When
+        first.close();
+        first.close();
+        final var second = dataSource.getConnection();
+
+        // Then
+        assertNotNull(second);
+        assertSame(connection, ((ConnectionProxy) second).getTargetConnection());
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        verify(connection, times(2)).close();
+    }
+}
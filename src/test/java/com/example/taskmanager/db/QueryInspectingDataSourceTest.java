@@ -0,0 +1,103 @@
+package com.example.taskmanager.db;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(OutputCaptureExtension.class)
+class QueryInspectingDataSourceTest {
+
+    private record Executed(String sql, long rows) {
+    }
+
+    private final List<Executed> executed = new ArrayList<>();
+    private DriverManagerDataSource target;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        target = new DriverManagerDataSource("jdbc:h2:mem:query-inspecting;DB_CLOSE_DELAY=-1");
+        try (var connection = target.getConnection(); var statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS items");
+            statement.execute("CREATE TABLE items (id INT PRIMARY KEY, name VARCHAR(20))");
+            statement.execute("INSERT INTO items VALUES (1, 'one'), (2, 'two'), (3, 'three')");
+        }
+    }
+
+    @Test
+    void should_report_statements_with_rows_read() throws Exception {
+        // Given
+        final var dataSource = new QueryInspectingDataSource(target, Duration.ofMinutes(1),
+                (sql, elapsed, rows) -> executed.add(new Executed(sql, rows)));
+
+        // When
+        try (var connection = dataSource.getConnection()) {
+            try (var query = connection.prepareStatement("SELECT name FROM items WHERE id > ?")) {
+                query.setInt(1, 1);
+                try (var resultSet = query.executeQuery()) {
+                    while (resultSet.next()) {
+                        resultSet.getString(1);
+                    }
+                }
+            }
+            try (var update = connection.prepareStatement("UPDATE items SET name = ? WHERE id = ?")) {
+                update.setString(1, "uno");
+                update.setInt(2, 1);
+                update.executeUpdate();
+            }
+        }
+
+        // Then
+        assertEquals(List.of(
+                new Executed("SELECT name FROM items WHERE id > ?", 2),
+                new Executed("UPDATE items SET name = ? WHERE id = ?", 0)
+        ), executed);
+    }
+
+    @Test
+    void should_report_query_closed_before_reading_all_rows() throws Exception {
+        // Given
+        final var dataSource = new QueryInspectingDataSource(target, Duration.ofMinutes(1),
+                (sql, elapsed, rows) -> executed.add(new Executed(sql, rows)));
+
+        // When
+        try (var connection = dataSource.getConnection(); var query = connection.createStatement()) {
+            final var resultSet = query.executeQuery("SELECT name FROM items");
+            resultSet.next();
+        }
+
+        // Then
+        assertEquals(List.of(new Executed("SELECT name FROM items", 1)), executed);
+    }
+
+    @Test
+    void should_log_slow_query_with_parameters_and_plan(CapturedOutput output) throws Exception {
+        // Given
+        final var dataSource = new QueryInspectingDataSource(target, Duration.ZERO, (sql, elapsed, rows) -> {
+        });
+
+        // When
+        try (var connection = dataSource.getConnection();
+             var query = connection.prepareStatement("SELECT name FROM items WHERE name = ?")) {
+            query.setString(1, "two");
+            try (var resultSet = query.executeQuery()) {
+                resultSet.next();
+            }
+        }
+
+        // Then
+        assertTrue(output.getOut().contains("SELECT name FROM items WHERE name = ?"));
+        assertTrue(output.getOut().contains("parameters: [1=two]"));
+        // H2 names the index or scan it picked in a comment of the plan
+        assertTrue(output.getOut().contains("/* PUBLIC."));
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.taskmanager.db;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Keeps the SQL Hibernate sends to the database, registered with hibernate.session_factory.statement_inspector.
+ */
+public class RecordingStatementInspector implements StatementInspector {
+
+    private static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.add(sql);
+        return sql;
+    }
+
+    static void clear() {
+        STATEMENTS.clear();
+    }
+
+    static String last() {
+        return STATEMENTS.getLast();
+    }
+
+    static List<String> all() {
+        return List.copyOf(STATEMENTS);
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.taskmanager.db;
+
+import com.example.taskmanager.domain.TaskStatus;
+import com.example.taskmanager.domain.UserId;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the execution plans of the SQL Hibernate generates for the main search filters.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.taskmanager.db.RecordingStatementInspector")
+@Transactional
+class SearchQueryPlanTest {
+
+    private static final LocalDateTime FROM = LocalDateTime.of(2030, 1, 1, 0, 0);
+    private static final LocalDateTime TO = FROM.plusMonths(1);
+
+    @Autowired
+    private TaskRepository taskRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void should_use_status_index_for_status_filter() {
+        // when
+        final var plan = planOf(() -> taskRepository.findBySearchParams(null, null, TaskStatus.Active, null, null, null, PageRequest.of(0, 10)));
+
+        // then
+        assertUses("IDX_TASKS_STATUS_DEADLINE", plan);
+    }
+
+    @Test
+    void should_use_status_index_for_status_and_deadline_filter() {
+        // when
+        final var plan = planOf(() -> taskRepository.countBySearchParams(null, null, TaskStatus.Active, FROM, TO, null));
+
+        // then
+        assertUses("IDX_TASKS_STATUS_DEADLINE", plan);
+    }
+
+    @Test
+    void should_use_deadline_index_for_deadline_range() {
+        // when
+        final var plan = planOf(() -> taskRepository.findBySearchParams(null, null, null, FROM, TO, null, PageRequest.of(0, 10)));
+
+        // then
+        assertUses("IDX_TASKS_DEADLINE_ID", plan);
+    }
+
+    @Test
+    void should_use_assignee_index_for_assigned_user_filter() {
+        // when
+        final var plan = planOf(() -> taskRepository.findBySearchParams(null, null, null, null, null, UserId.generate(), PageRequest.of(0, 10)));
+
+        // then
+        assertUses("IDX_TASK_ASSIGNED_USERS_USER_ID", plan);
+    }
+
+    @Test
+    void should_range_scan_native_assignee_index_for_tasks_of_user() {
+        // when
+        final var plan = planOf(() -> taskRepository.findByAssignedUserAndStatus(UserId.generate().id(), "Active", PageRequest.of(0, 10)));
+
+        // then
+        assertUses("IDX_TASK_ASSIGNED_USERS_USER_ID", plan);
+    }
+
+    @Test
+    void should_range_scan_native_assignee_index_for_all_tasks_of_user() {
+        // when
+        final var plan = planOf(() -> taskRepository.findByAssignedUser(UserId.generate().id(), PageRequest.of(0, 10)));
+
+        // then
+        assertUses("IDX_TASK_ASSIGNED_USERS_USER_ID", plan);
+    }
+
+    @Test
+    void should_seek_title_index_for_cursor_sorted_by_title() {
+        // when
+        final var plans = plansOf(() -> taskRepository.findNextBySearchParams(null, null, null, null, null, null,
+                Keyset.first("title", Sort.Direction.ASC).after("Fix bug", UUID.randomUUID()), 51));
+
+        // then
+        // tasks with a title and, once those run out, the tasks without one
+        assertFalse(plans.isEmpty());
+        plans.forEach(plan -> assertSeeks("IDX_TASKS_TITLE_ID", plan));
+    }
+
+    @Test
+    void should_seek_deadline_index_for_cursor_sorted_by_deadline() {
+        // when
+        final var plans = plansOf(() -> taskRepository.findNextBySearchParams(null, null, null, null, null, null,
+                Keyset.first("deadline", Sort.Direction.ASC).after(FROM, UUID.randomUUID()), 51));
+
+        // then
+        assertFalse(plans.isEmpty());
+        plans.forEach(plan -> assertSeeks("IDX_TASKS_DEADLINE_ID", plan));
+    }
+
+    private String planOf(Runnable search) {
+        RecordingStatementInspector.clear();
+        search.run();
+        return explain(RecordingStatementInspector.last());
+    }
+
+    private List<String> plansOf(Runnable search) {
+        RecordingStatementInspector.clear();
+        search.run();
+        return RecordingStatementInspector.all().stream().map(this::explain).toList();
+    }
+
+    private String explain(String sql) {
+        // the plan doesn't depend on the parameter values, so all of them are left null
+        final var parameters = new Object[(int) sql.chars().filter(c -> c == '?').count()];
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, parameters);
+    }
+
+    private static void assertUses(String index, String plan) {
+        assertTrue(plan.contains("PUBLIC." + index), () -> "Expected " + index + " to be used, but the plan was:\n" + plan);
+    }
+
+    /**
+     * The index is searched by a condition and read in the order of the query, so no other rows are read and nothing is sorted.
+     */
+    private static void assertSeeks(String index, String plan) {
+        assertTrue(plan.contains("PUBLIC." + index + ": ") && plan.contains("/* index sorted */"),
+                () -> "Expected a seek into " + index + " in query order, but the plan was:\n" + plan);
+    }
+}
@@ -0,0 +1,242 @@
+package com.example.taskmanager.db;
+
+import com.example.taskmanager.domain.Task;
+import com.example.taskmanager.domain.TaskId;
+import com.example.taskmanager.domain.TaskStatus;
+import com.example.taskmanager.domain.User;
+import com.example.taskmanager.domain.UserId;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@Transactional
+class TaskRepositoryTest {
+
+    @Autowired
+    private TaskRepository taskRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    void should_find_tasks_of_user_by_status_ordered_by_deadline() {
+        // given
+        final var alice = userRepository.save(User.create(UserId.generate(), "Alice", "Smith", "alice@acme.com"));
+        final var bob = userRepository.save(User.create(UserId.generate(), "Bob", "Nakamoto", "bob@acme.com"));
+        final var later = Task.create(TaskId.generate(), "Later", null, LocalDateTime.now().plusDays(2), List.of(alice.getId()));
+        final var sooner = Task.create(TaskId.generate(), "Sooner", null, LocalDateTime.now().plusDays(1), List.of(alice.getId(), bob.getId()));
+        final var completed = Task.create(TaskId.generate(), "Completed", null, null, List.of(alice.getId()));
+        completed.changeStatus(TaskStatus.Completed);
+        taskRepository.saveAll(List.of(later, sooner, completed));
+        entityManager.flush();
+        entityManager.clear();
+
+        // when
+        final var newTasks = taskRepository.findByAssignedUserAndStatus(alice.getId().id(), TaskStatus.New.name(), PageRequest.of(0, 10));
+        final var allTasks = taskRepository.findByAssignedUser(alice.getId().id(), PageRequest.of(0, 2));
+
+        // then
+        assertEquals(List.of(sooner.getId(), later.getId()), newTasks.map(Task::getId).getContent());
+        assertEquals(3, allTasks.getTotalElements());
+    }
+
+    @Test
+    void should_add_only_new_assignees_of_existing_users() {
+        // given
+        final var alice = userRepository.save(User.create(UserId.generate(), "Alice", "Smith", "alice@acme.com"));
+        final var bob = userRepository.save(User.create(UserId.generate(), "Bob", "Nakamoto", "bob@acme.com"));
+        final var task = taskRepository.save(Task.create(TaskId.generate(), "Task", null, null, List.of(alice.getId())));
+        entityManager.flush();
+        entityManager.clear();
+
+        // when
+        final var added = taskRepository.insertAssignees(task.getId().id(),
+                List.of(alice.getId().id(), bob.getId().id(), UUID.randomUUID()));
+        entityManager.clear();
+
+        // then
+        assertEquals(1, added);
+        assertEquals(Set.of(alice.getId(), bob.getId()),
+                Set.copyOf(taskRepository.findById(task.getId()).orElseThrow().getAssignedUsers()));
+    }
+
+    @Test
+    void should_change_status_only_at_expected_version() {
+        // given
+        final var task = taskRepository.save(Task.create(TaskId.generate(), "Task", null, null, List.of()));
+        entityManager.flush();
+        entityManager.clear();
+
+        // when
+        final var staleUpdate = taskRepository.updateStatus(task.getId().id(), TaskStatus.Active, 5L, Instant.now());
+        final var update = taskRepository.updateStatus(task.getId().id(), TaskStatus.Active, 0L, Instant.now());
+        entityManager.clear();
+
+        // then
+        assertEquals(0, staleUpdate);
+        assertEquals(1, update);
+        final var updated = taskRepository.findById(task.getId()).orElseThrow();
+        assertEquals(TaskStatus.Active, updated.getTaskStatus());
+        assertEquals(1L, updated.getVersion());
+    }
+
+    @Test
+    void should_change_status_of_tasks_matching_search() {
+        // given
+        final var alice = userRepository.save(User.create(UserId.generate(), "Alice", "Smith", "alice@acme.com"));
+        final var ofAlice = Task.create(TaskId.generate(), "Sprint task", null, null, List.of(alice.getId()));
+        final var completedOfAlice = Task.create(TaskId.generate(), "Done task", null, null, List.of(alice.getId()));
+        completedOfAlice.changeStatus(TaskStatus.Completed);
+        final var unassigned = Task.create(TaskId.generate(), "Other task", null, null, List.of());
+        taskRepository.saveAll(List.of(ofAlice, completedOfAlice, unassigned));
+        entityManager.flush();
+        entityManager.clear();
+
+        // when
+        final var changed = taskRepository.updateStatusBySearchParams(null, null, null, null, null, alice.getId(),
+                TaskStatus.Completed, Instant.now());
+        entityManager.clear();
+
+        // then
+        assertEquals(1, changed);
+        assertEquals(TaskStatus.Completed, taskRepository.findById(ofAlice.getId()).orElseThrow().getTaskStatus());
+        assertEquals(TaskStatus.New, taskRepository.findById(unassigned.getId()).orElseThrow().getTaskStatus());
+    }
+
+    @Test
+    void should_delete_assignments_along_with_tasks_and_users() {
+        // given
+        final var alice = userRepository.save(User.create(UserId.generate(), "Alice", "Smith", "alice@acme.com"));
+        final var bob = userRepository.save(User.create(UserId.generate(), "Bob", "Nakamoto", "bob@acme.com"));
+        final var deleted = Task.create(TaskId.generate(), "Deleted", null, null, List.of(alice.getId()));
+        final var kept = Task.create(TaskId.generate(), "Kept", null, null, List.of(alice.getId(), bob.getId()));
+        taskRepository.saveAll(List.of(deleted, kept));
+        entityManager.flush();
+        entityManager.clear();
+
+        // when
+        final var deletedTasks = taskRepository.deleteAllInBulk(List.of(deleted.getId().id()));
+        userRepository.deleteById(alice.getId());
+        entityManager.flush();
+        entityManager.clear();
+
+        // then
+        assertEquals(1, deletedTasks);
+        assertEquals(List.of(bob.getId()), taskRepository.findById(kept.getId()).orElseThrow().getAssignedUsers());
+        assertEquals(1L, entityManager.createNativeQuery("SELECT COUNT(*) FROM task_assigned_users WHERE task_id IN (:taskIds)")
+                .setParameter("taskIds", List.of(deleted.getId().id(), kept.getId().id()))
+                .getSingleResult());
+    }
+
+    @Test
+    void should_stream_matching_tasks_in_chunks_detaching_read_ones() {
+        // given
+        final var alice = userRepository.save(User.create(UserId.generate(), "Alice", "Smith", "alice@acme.com"));
+        final var bob = userRepository.save(User.create(UserId.generate(), "Bob", "Nakamoto", "bob@acme.com"));
+        final var tasks = List.of(
+                Task.create(TaskId.generate(), "Task 1", null, null, List.of(alice.getId())),
+                Task.create(TaskId.generate(), "Task 2", null, null, List.of(alice.getId(), bob.getId())),
+                Task.create(TaskId.generate(), "Task 3", null, null, List.of()),
+                Task.create(TaskId.generate(), "Task 4", null, null, List.of(bob.getId())),
+                Task.create(TaskId.generate(), "Task 5", null, null, List.of(alice.getId())));
+        final var completed = Task.create(TaskId.generate(), "Completed", null, null, List.of(alice.getId()));
+        completed.changeStatus(TaskStatus.Completed);
+        taskRepository.saveAll(tasks);
+        taskRepository.save(completed);
+        entityManager.flush();
+        entityManager.clear();
+
+        // when
+        final var streamed = new ArrayList<Task>();
+        final var attachedEarlierChunks = new ArrayList<Task>();
+        try (var stream = taskRepository.streamBySearchParams(null, null, TaskStatus.New, null, null, null, 2)) {
+            stream.forEach(task -> {
+                streamed.add(task);
+                // with chunks of two, the task read two rows earlier always belongs to an earlier chunk
+                if (streamed.size() > 2 && entityManager.contains(streamed.get(streamed.size() - 3))) {
+                    attachedEarlierChunks.add(streamed.get(streamed.size() - 3));
+                }
+            });
+        }
+
+        // then
+        assertEquals(tasks.size(), streamed.size());
+        assertEquals(List.of(), attachedEarlierChunks);
+        final var expectedAssignees = tasks.stream()
+                .collect(Collectors.toMap(Task::getId, task -> Set.copyOf(task.getAssignedUsers())));
+        final var streamedAssignees = streamed.stream()
+                .collect(Collectors.toMap(Task::getId, task -> Set.copyOf(task.getAssignedUsers())));
+        assertEquals(expectedAssignees, streamedAssignees);
+    }
+
+    @Test
+    void should_page_by_deadline_cursor_with_tasks_without_deadline_last() {
+        // given
+        final var title = "Keyset " + UUID.randomUUID();
+        final var deadline = LocalDateTime.of(2030, 1, 1, 12, 0);
+        final var tasks = List.of(
+                Task.create(TaskId.generate(), title, null, deadline.plusDays(2), List.of()),
+                Task.create(TaskId.generate(), title, null, null, List.of()),
+                Task.create(TaskId.generate(), title, null, deadline.plusDays(1), List.of()),
+                Task.create(TaskId.generate(), title, null, null, List.of()),
+                Task.create(TaskId.generate(), title, null, deadline.plusDays(3), List.of()));
+        taskRepository.saveAll(tasks);
+        entityManager.flush();
+        entityManager.clear();
+        // the database orders UUIDs by their unsigned bits
+        final Comparator<Task> byId = Comparator.comparing((Task task) -> task.getId().id().getMostSignificantBits(), Long::compareUnsigned)
+                .thenComparing(task -> task.getId().id().getLeastSignificantBits(), Long::compareUnsigned);
+        final var withDeadline = tasks.stream().filter(task -> task.getDeadline() != null)
+                .sorted(Comparator.comparing(Task::getDeadline)).map(Task::getId).toList();
+        final var withoutDeadline = tasks.stream().filter(task -> task.getDeadline() == null)
+                .sorted(byId).map(Task::getId).toList();
+
+        // when
+        final var ascending = pageByDeadline(title, Sort.Direction.ASC);
+        final var descending = pageByDeadline(title, Sort.Direction.DESC);
+
+        // then
+        final var expectedAscending = new ArrayList<>(withDeadline);
+        expectedAscending.addAll(withoutDeadline);
+        final var expectedDescending = new ArrayList<>(withDeadline.reversed());
+        expectedDescending.addAll(withoutDeadline.reversed());
+        assertEquals(expectedAscending, ascending);
+        assertEquals(expectedDescending, descending);
+    }
+
+    /**
+     * Reads all tasks with the title by pages of two, so that a page spans the tasks with and without a deadline.
+     */
+    private List<TaskId> pageByDeadline(String title, Sort.Direction direction) {
+        final var ids = new ArrayList<TaskId>();
+        var keyset = Keyset.first("deadline", direction);
+        List<Task> page;
+        do {
+            page = taskRepository.findNextBySearchParams(title, null, null, null, null, null, keyset, 2);
+            page.forEach(task -> ids.add(task.getId()));
+            if (!page.isEmpty()) {
+                final var last = page.get(page.size() - 1);
+                keyset = keyset.after(last.getDeadline(), last.getId().id());
+            }
+        } while (page.size() == 2);
+        return ids;
+    }
+}
@@ -90,6 +90,24 @@ class TaskTest {
         assertEquals(1, task.getAssignedUsers().size());
     }
 
+    @Test
+    void should_reflect_new_assignees_in_read_only_view() {
+        // given
+        final var user1 = UserId.generate();
+        final var user2 = UserId.generate();
+        final var task = Task.create(TaskId.generate(), "task_1", null, null, List.of(user1, user1));
+        final var before = task.getAssignedUsers();
+
+        // when
+        task.assignUser(user2);
+
+        // then
+        assertEquals(List.of(user1), before);
+        assertSame(task.getAssignedUsers(), task.getAssignedUsers());
+        assertEquals(List.of(user1, user2), task.getAssignedUsers());
+        assertThrows(UnsupportedOperationException.class, () -> task.getAssignedUsers().add(user1));
+    }
+
     @Test
     void should_change_status() {
         // given
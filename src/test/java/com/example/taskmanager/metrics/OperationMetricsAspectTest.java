@@ -0,0 +1,84 @@
+package com.example.taskmanager.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// observability enables the Prometheus registry, which tests leave out by default
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class OperationMetricsAspectTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void should_time_every_layer_of_search_tagged_with_filter_shape() throws Exception {
+        // when
+        mockMvc.perform(get("/api/tasks").param("title", "metrics").param("taskStatus", "Active"))
+                .andExpect(status().isOk());
+
+        // then
+        for (var operation : List.of("TaskController.findTasks", "TaskService.findTasks", "TaskRepository.findBySearchParams")) {
+            final var timer = meterRegistry.find(OperationMetricsAspect.OPERATION_TIMER)
+                    .tags("operation", operation, "filter", "title+taskStatus", "exception", "none")
+                    .timer();
+            assertNotNull(timer, operation);
+            assertEquals(1, timer.count(), operation);
+        }
+        final var statements = meterRegistry.get(OperationMetricsAspect.STATEMENTS_SUMMARY)
+                .tags("operation", "TaskController.findTasks", "filter", "title+taskStatus")
+                .summary();
+        assertEquals(1, statements.count());
+        assertTrue(statements.totalAmount() > 0);
+    }
+
+    @Test
+    void should_count_exceptions_thrown_by_services() throws Exception {
+        // when
+        mockMvc.perform(patch("/api/tasks/{taskId}/status", UUID.randomUUID())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"status\":\"Active\"}"))
+                .andExpect(status().isNotFound());
+
+        // then
+        final var counter = meterRegistry.get(OperationMetricsAspect.EXCEPTION_COUNTER)
+                .tags("operation", "TaskService.changeStatus", "exception", "TaskNotFoundException")
+                .counter();
+        assertEquals(1, counter.count());
+    }
+
+    @Test
+    void should_publish_operation_histograms_for_prometheus() throws Exception {
+        // given
+        mockMvc.perform(get("/api/users").param("lastName", "prometheus")).andExpect(status().isOk());
+
+        // when / then
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(allOf(
+                        containsString("taskmanager_operations_seconds_bucket{"),
+                        containsString("operation=\"UserService.findUsers\""))));
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.taskmanager.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class SqlStatementCountFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void should_tell_statements_of_request_in_header() throws Exception {
+        // given
+        final var location = mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\":\"Sam\",\"lastName\":\"Query\",\"email\":\"sam.query@example.com\"}"))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getHeader("Location");
+
+        // when / then
+        mockMvc.perform(get(location + "/tasks"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(SqlStatementCountFilter.HEADER, matchesPattern("[1-9][0-9]*")));
+    }
+
+    @Test
+    void should_tell_no_statements_for_request_without_database_access() throws Exception {
+        // when / then
+        mockMvc.perform(get("/api/users/suggest").param("q", "nobody"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(SqlStatementCountFilter.HEADER, "0"));
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.taskmanager.search;
+
+import com.example.taskmanager.domain.Task;
+import com.example.taskmanager.domain.TaskId;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TaskTextIndexTest {
+
+    private final TaskTextIndex index = new TaskTextIndex();
+
+    @Test
+    void should_find_tasks_by_word_prefix() {
+        // given
+        final var task = Task.create(TaskId.generate(), "Refactor authentication", "Split the login flow", null, List.of());
+        index.index(task);
+
+        // when
+        final var result = index.search("auth LOG", 0, 10);
+
+        // then
+        assertEquals(List.of(task.getId()), result.taskIds());
+        assertEquals(1, result.totalHits());
+    }
+
+    @Test
+    void should_require_all_query_words_to_match() {
+        // given
+        index.index(Task.create(TaskId.generate(), "Fix login", null, null, List.of()));
+
+        // when
+        final var result = index.search("login payment", 0, 10);
+
+        // then
+        assertTrue(result.taskIds().isEmpty());
+        assertEquals(0, result.totalHits());
+    }
+
+    @Test
+    void should_rank_title_and_whole_word_matches_first() {
+        // given
+        final var prefixInDescription = Task.create(TaskId.generate(), "Task 1", "bugfixes", null, List.of());
+        final var wordInDescription = Task.create(TaskId.generate(), "Task 2", "one bug", null, List.of());
+        final var wordInTitle = Task.create(TaskId.generate(), "Bug", null, null, List.of());
+        index.index(prefixInDescription);
+        index.index(wordInDescription);
+        index.index(wordInTitle);
+
+        // when
+        final var result = index.search("bug", 0, 10);
+
+        // then
+        assertEquals(List.of(wordInTitle.getId(), wordInDescription.getId(), prefixInDescription.getId()), result.taskIds());
+    }
+
+    @Test
+    void should_page_through_ranked_matches() {
+        // given
+        final var best = Task.create(TaskId.generate(), "Bug bug", null, null, List.of());
+        final var second = Task.create(TaskId.generate(), "Bug", null, null, List.of());
+        final var third = Task.create(TaskId.generate(), "Task", "bug", null, List.of());
+        index.index(third);
+        index.index(best);
+        index.index(second);
+
+        // when
+        final var secondPage = index.search("bug", 1, 1);
+        final var thirdPage = index.search("bug", 2, 1);
+
+        // then
+        assertEquals(List.of(second.getId()), secondPage.taskIds());
+        assertEquals(List.of(third.getId()), thirdPage.taskIds());
+        assertEquals(3, secondPage.totalHits());
+    }
+
+    @Test
+    void should_reflect_edits_and_removals() {
+        // given
+        final var task = Task.create(TaskId.generate(), "Fix login", null, null, List.of());
+        index.index(task);
+
+        // when
+        task.changeTitle("Fix payments");
+        index.index(task);
+
+        // then
+        assertTrue(index.search("login", 0, 10).taskIds().isEmpty());
+        assertEquals(List.of(task.getId()), index.search("payments", 0, 10).taskIds());
+
+        // when
+        index.remove(task.getId());
+
+        // then
+        assertTrue(index.search("payments", 0, 10).taskIds().isEmpty());
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.taskmanager.search;
+
+import com.example.taskmanager.domain.User;
+import com.example.taskmanager.domain.UserId;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserSearchIndexTest {
+
+    private final UserSearchIndex index = new UserSearchIndex();
+
+    @Test
+    void should_suggest_users_by_infix_of_name_or_email() {
+        // given
+        final var alice = User.create(UserId.generate(), "Alice", "Smith", "alice@acme.com");
+        final var bob = User.create(UserId.generate(), "Bob", "Nakamoto", "bob@example.org");
+        index.add(alice);
+        index.add(bob);
+
+        // when
+        final var byName = index.suggest("MITH", 10);
+        final var byEmail = index.suggest("acme", 10);
+
+        // then
+        assertEquals(List.of(new UserSearchIndex.Suggestion(alice.getId(), "Alice Smith")), byName);
+        assertEquals(List.of(new UserSearchIndex.Suggestion(alice.getId(), "Alice Smith")), byEmail);
+    }
+
+    @Test
+    void should_not_match_users_containing_only_the_query_trigrams() {
+        // given
+        index.add(User.create(UserId.generate(), "Anna", "Annabel", "anna@bel.com"));
+
+        // when
+        final var suggestions = index.suggest("nnab bel", 10);
+
+        // then
+        assertTrue(suggestions.isEmpty());
+    }
+
+    @Test
+    void should_match_short_queries_by_prefix_only() {
+        // given
+        final var alice = User.create(UserId.generate(), "Alice", "Smith", "alice@acme.com");
+        index.add(alice);
+        index.add(User.create(UserId.generate(), "Bob", "Malice", "bob@acme.com"));
+
+        // when
+        final var suggestions = index.suggest("al", 10);
+
+        // then
+        assertEquals(List.of(alice.getId()), suggestions.stream().map(UserSearchIndex.Suggestion::userId).toList());
+    }
+
+    @Test
+    void should_return_word_start_matches_first() {
+        // given
+        final var malice = User.create(UserId.generate(), "Bob", "Malice", "bob@acme.com");
+        final var alice = User.create(UserId.generate(), "Alice", "Smith", "alice@acme.com");
+        index.add(malice);
+        index.add(alice);
+
+        // when
+        final var suggestions = index.suggest("alic", 1);
+
+        // then
+        assertEquals(List.of(alice.getId()), suggestions.stream().map(UserSearchIndex.Suggestion::userId).toList());
+    }
+
+    @Test
+    void should_not_suggest_removed_users() {
+        // given
+        final var alice = User.create(UserId.generate(), "Alice", "Smith", "alice@acme.com");
+        index.add(alice);
+
+        // when
+        index.remove(alice.getId());
+
+        // then
+        assertTrue(index.suggest("alice", 10).isEmpty());
+        assertTrue(index.suggest("a", 10).isEmpty());
+    }
+}
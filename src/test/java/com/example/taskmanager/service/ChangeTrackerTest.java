@@ -0,0 +1,44 @@
+package com.example.taskmanager.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class ChangeTrackerTest {
+
+    private static final Instant STARTUP = Instant.parse("2025-01-01T12:00:00Z");
+
+    @Test
+    void should_change_version_with_every_change() {
+        // given
+        final var tracker = new ChangeTracker(Clock.fixed(STARTUP, ZoneOffset.UTC));
+        final var initial = tracker.current();
+
+        // when
+        tracker.changed();
+
+        // then
+        assertEquals(STARTUP, initial.lastModified());
+        assertNotEquals(initial.tag(), tracker.current().tag());
+        assertEquals(tracker.current(), tracker.current());
+    }
+
+    @Test
+    void should_not_repeat_versions_after_restart() {
+        // given
+        final var beforeRestart = new ChangeTracker(Clock.fixed(STARTUP, ZoneOffset.UTC));
+        final var afterRestart = new ChangeTracker(Clock.fixed(STARTUP.plusSeconds(60), ZoneOffset.UTC));
+
+        // when
+        beforeRestart.changed();
+        afterRestart.changed();
+
+        // then
+        assertNotEquals(beforeRestart.current().tag(), afterRestart.current().tag());
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.taskmanager.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SearchCountCacheTest {
+
+    @Test
+    void should_count_again_after_ttl() {
+        // given
+        final var now = new AtomicReference<>(Instant.parse("2025-01-01T10:00:00Z"));
+        final var calls = new AtomicInteger();
+        final var cache = new SearchCountCache<String>(Duration.ofSeconds(5), clockOf(now));
+
+        // when
+        cache.get("key", calls::incrementAndGet);
+        now.set(now.get().plusSeconds(4));
+        cache.get("key", calls::incrementAndGet);
+
+        // then
+        assertEquals(1, calls.get());
+
+        // when
+        now.set(now.get().plusSeconds(1));
+        cache.get("key", calls::incrementAndGet);
+
+        // then
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void should_not_cache_when_ttl_is_zero() {
+        // given
+        final var calls = new AtomicInteger();
+        final var cache = new SearchCountCache<String>(Duration.ZERO);
+
+        // when
+        cache.get("key", calls::incrementAndGet);
+        cache.get("key", calls::incrementAndGet);
+
+        // then
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void should_count_again_after_invalidation() {
+        // given
+        final var calls = new AtomicInteger();
+        final var cache = new SearchCountCache<String>(Duration.ofMinutes(1));
+
+        // when
+        cache.get("key", calls::incrementAndGet);
+        cache.invalidateAll();
+        cache.get("key", calls::incrementAndGet);
+
+        // then
+        assertEquals(2, calls.get());
+    }
+
+    private static Clock clockOf(AtomicReference<Instant> now) {
+        return new Clock() {
+            @Override
+            public ZoneId getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return now.get();
+            }
+        };
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.db.TaskRepository;
+import com.example.taskmanager.db.UserRepository;
+import com.example.taskmanager.domain.Task;
+import com.example.taskmanager.domain.TaskId;
+import com.example.taskmanager.domain.TaskStatus;
+import com.example.taskmanager.domain.User;
+import com.example.taskmanager.domain.UserId;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+class TaskServiceCacheTest {
+
+    @Autowired
+    private TaskService taskService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @MockitoBean
+    private TaskRepository taskRepository;
+    @MockitoBean
+    private UserRepository userRepository;
+
+    @Test
+    void should_read_task_from_cache_until_it_changes() throws Exception {
+        // given
+        final var taskId = TaskId.generate();
+        final var task = Task.create(taskId, "Task 1", null, null, List.of());
+        when(taskRepository.findById(taskId)).thenReturn(Optional.of(task));
+        when(taskRepository.updateStatus(eq(taskId.id()), eq(TaskStatus.Active), isNull(), any())).thenReturn(1);
+
+        // when
+        taskService.findById(taskId);
+        taskService.findById(taskId);
+        taskService.changeStatus(taskId, TaskStatus.Active, null);
+        final var afterChange = taskService.findById(taskId);
+
+        // then
+        // one load before the change and one after the eviction, the status update itself doesn't load the task
+        verify(taskRepository, times(2)).findById(taskId);
+        assertEquals(Optional.of(task), afterChange);
+    }
+
+    @Test
+    void should_evict_within_callers_transaction_only_once_it_commits() {
+        // given
+        final var taskId = TaskId.generate();
+        final var task = Task.create(taskId, "Task 1", null, null, List.of());
+        when(taskRepository.findById(taskId)).thenReturn(Optional.of(task));
+        taskService.findById(taskId);
+        final var transaction = new TransactionTemplate(transactionManager);
+
+        // when
+        transaction.executeWithoutResult(status -> {
+            taskService.deleteTask(taskId);
+            status.setRollbackOnly();
+        });
+        taskService.findById(taskId);
+        transaction.executeWithoutResult(status -> taskService.deleteTask(taskId));
+        taskService.findById(taskId);
+
+        // then
+        // the rolled back delete keeps the cached task, the committed one evicts it
+        verify(taskRepository, times(2)).findById(taskId);
+    }
+
+    @Test
+    void should_not_keep_task_cached_by_concurrent_lookup_while_its_assignee_is_deleted() {
+        // given
+        final var userId = UserId.generate();
+        final var taskId = TaskId.generate();
+        final var task = Task.create(taskId, "Task 1", null, null, List.of(userId));
+        when(taskRepository.findById(taskId)).thenReturn(Optional.of(task));
+        when(taskRepository.touchTasksOfUser(eq(userId.id()), any())).thenReturn(1);
+
+        // when
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            userService.deleteUser(userId);
+            // another request still sees the task with its assignee until the delete commits
+            CompletableFuture.runAsync(() -> taskService.findById(taskId)).join();
+        });
+        taskService.findById(taskId);
+
+        // then
+        verify(taskRepository, times(2)).findById(taskId);
+    }
+
+    @Test
+    void should_not_keep_total_counted_while_a_change_is_being_committed() throws Exception {
+        // given
+        final var pageable = PageRequest.of(0, 1);
+        final var searchParams = new TaskSearchParams("Concurrent count", null, null, null, null, null);
+        final var task = Task.create(TaskId.generate(), "Concurrent count", null, null, List.of());
+        when(taskRepository.findBySearchParams(any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(new SliceImpl<>(List.of(task), pageable, true));
+        when(taskRepository.countBySearchParams(any(), any(), any(), any(), any(), any())).thenReturn(1L, 2L);
+
+        // when
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            try {
+                taskService.addTasks(List.of(Task.create(TaskId.generate(), "Concurrent count", null, null, List.of())));
+            } catch (DomainObjectValidationException e) {
+                throw new IllegalStateException(e);
+            }
+            // another request still counts the tasks without the new one until it commits
+            CompletableFuture.runAsync(() -> taskService.findTasks(searchParams, pageable)).join();
+        });
+        final var afterCommit = taskService.findTasks(searchParams, pageable);
+
+        // then
+        assertEquals(2L, afterCommit.getTotalElements());
+    }
+
+    @Test
+    void should_not_cache_missing_tasks() {
+        // given
+        final var taskId = TaskId.generate();
+        when(taskRepository.findById(taskId)).thenReturn(Optional.empty());
+
+        // when
+        taskService.findById(taskId);
+        taskService.findById(taskId);
+
+        // then
+        verify(taskRepository, times(2)).findById(taskId);
+    }
+
+    @Test
+    void should_evict_deleted_user() {
+        // given
+        final var user = User.create(UserId.generate(), "Alice", "Smith", "alice@acme.com");
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        userService.findUserById(user.getId());
+        userService.findUserById(user.getId());
+
+        // when
+        userService.deleteUser(user.getId());
+        userService.findUserById(user.getId());
+
+        // then
+        verify(userRepository, times(2)).findById(user.getId());
+    }
+
+    @Test
+    void should_publish_cache_metrics() {
+        // when
+        final var hits = meterRegistry.find("cache.gets").tag("cache", TaskService.TASK_CACHE).tag("result", "hit").functionCounter();
+
+        // then
+        assertNotNull(hits);
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.taskmanager.service;
+
+import com.example.taskmanager.db.UserRepository;
+import com.example.taskmanager.domain.Task;
+import com.example.taskmanager.domain.TaskId;
+import com.example.taskmanager.domain.User;
+import com.example.taskmanager.domain.UserId;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class TaskServiceStatementCountTest {
+
+    @Autowired
+    private TaskService taskService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void should_validate_assignees_with_constant_number_of_queries() throws Exception {
+        // Given
+        final var fewUsers = createUsers(1);
+        final var manyUsers = createUsers(50);
+
+        // When
+        final var queriesForFewUsers = countQueries(() -> taskService.addTask(newTask(fewUsers)));
+        final var queriesForManyUsers = countQueries(() -> taskService.addTask(newTask(manyUsers)));
+
+        // Then
+        assertEquals(queriesForFewUsers, queriesForManyUsers);
+    }
+
+    @Test
+    void should_assign_users_with_constant_number_of_queries() throws Exception {
+        // Given
+        final var task = newTask(List.of());
+        taskService.addTask(task);
+        final var fewUsers = createUsers(1);
+        final var manyUsers = createUsers(50);
+
+        // When
+        final var queriesForFewUsers = countQueries(() -> taskService.assignUsers(task.getId(), fewUsers, null));
+        final var queriesForManyUsers = countQueries(() -> taskService.assignUsers(task.getId(), manyUsers, null));
+
+        // Then
+        assertEquals(queriesForFewUsers, queriesForManyUsers);
+    }
+
+    @Test
+    void should_load_assignees_of_search_page_with_constant_number_of_statements() throws Exception {
+        // Given
+        final var users = createUsers(2);
+        final var title = "Page test " + UUID.randomUUID();
+        for (int i = 0; i < 50; i++) {
+            taskService.addTask(Task.create(TaskId.generate(), title, null, null, users));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        // both pages are full, so both need the total; count it once up front to compare the cached case only
+        loadAssigneesOfPage(title, PageRequest.of(0, 1));
+        entityManager.clear();
+
+        // When
+        final var statementsForSmallPage = countStatements(() -> loadAssigneesOfPage(title, PageRequest.of(0, 5)));
+        entityManager.clear();
+        final var statementsForLargePage = countStatements(() -> loadAssigneesOfPage(title, PageRequest.of(0, 50)));
+
+        // Then
+        assertEquals(statementsForSmallPage, statementsForLargePage);
+    }
+
+    private void loadAssigneesOfPage(String title, Pageable pageable) {
+        final var params = new TaskSearchParams(title, null, null, null, null, null);
+        taskService.findTasks(params, pageable).forEach(Task::getAssignedUsers);
+    }
+
+    private long countStatements(ServiceCall call) throws Exception {
+        statistics.clear();
+        call.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private long countQueries(ServiceCall call) throws Exception {
+        statistics.clear();
+        call.run();
+        return statistics.getQueryExecutionCount();
+    }
+
+    private List<UserId> createUsers(int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> userRepository.save(User.create(UserId.generate(), "Alice", "Smith", "alice" + i + "@acme.com")))
+                .map(User::getId)
+                .toList();
+    }
+
+    private static Task newTask(List<UserId> users) {
+        return Task.create(TaskId.generate(), "Fix bug", "Fix issue #1", LocalDateTime.now().plusDays(1), users);
+    }
+
+    @FunctionalInterface
+    private interface ServiceCall {
+        void run() throws Exception;
+    }
+}
@@ -1,42 +1,66 @@
 package com.example.taskmanager.service;
 
+import com.example.taskmanager.db.Keyset;
 import com.example.taskmanager.db.TaskRepository;
 import com.example.taskmanager.db.UserRepository;
 import com.example.taskmanager.domain.Task;
 import com.example.taskmanager.domain.TaskId;
 import com.example.taskmanager.domain.TaskStatus;
 import com.example.taskmanager.domain.UserId;
+import com.example.taskmanager.search.TaskTextIndex;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class TaskServiceTest {
 
-    @InjectMocks
     private TaskService service;
+    private final TaskTextIndex textIndex = new TaskTextIndex();
+    private final KnownUserIds knownUserIds = new KnownUserIds();
     @Mock
     private TaskRepository taskRepository;
     @Mock
     private UserRepository userRepository;
 
+    @BeforeEach
+    void setUp() {
+        service = new TaskService(taskRepository, userRepository, Duration.ofMinutes(1), textIndex, knownUserIds);
+    }
+
     @Test
     void should_save_task() throws UserNotFoundException, DomainObjectValidationException {
         // Given
@@ -50,7 +74,7 @@ class TaskServiceTest {
         );
         final var argumentCaptor = ArgumentCaptor.forClass(Task.class);
         when(taskRepository.save(any(Task.class))).thenReturn(task);
-        when(userRepository.existsById(user)).thenReturn(true);
+        when(userRepository.findMissingIds(List.of(user))).thenReturn(Set.of());
 
         // When
         service.addTask(task);
@@ -61,19 +85,100 @@ class TaskServiceTest {
         assertEquals(task, capturedArgument);
     }
 
+    @Test
+    void should_add_tasks_in_batch_rejecting_tasks_with_unknown_users() throws DomainObjectValidationException {
+        // Given
+        final var existingUser = UserId.generate();
+        final var missingUser = UserId.generate();
+        final var validTask = Task.create(TaskId.generate(), "Task 1", null, null, List.of(existingUser));
+        final var invalidTask = Task.create(TaskId.generate(), "Task 2", null, null, List.of(existingUser, missingUser));
+
+        knownUserIds.add(existingUser);
+        when(userRepository.findMissingIds(List.of(missingUser))).thenReturn(Set.of(missingUser));
+
+        // When
+        final var outcomes = service.addTasks(List.of(validTask, invalidTask));
+
+        // Then
+        verify(taskRepository).insertAll(List.of(validTask));
+        assertEquals(2, outcomes.size());
+        assertEquals(TaskBatchOutcome.created(validTask.getId()), outcomes.get(0));
+        assertEquals(invalidTask.getId(), outcomes.get(1).taskId());
+        assertFalse(outcomes.get(1).isCreated());
+    }
+
+    @Test
+    void should_search_tasks_by_text_in_ranking_order() throws Exception {
+        // Given
+        final var descriptionMatch = Task.create(TaskId.generate(), "Release", "Fix the login bug", null, List.of());
+        final var titleMatch = Task.create(TaskId.generate(), "Login bug", null, null, List.of());
+        when(taskRepository.save(any(Task.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        service.addTask(descriptionMatch);
+        service.addTask(titleMatch);
+        when(taskRepository.findAllById(any())).thenReturn(List.of(descriptionMatch, titleMatch));
+
+        // When
+        final var page = service.searchTasks("log bug", PageRequest.of(0, 10));
+
+        // Then
+        assertEquals(List.of(titleMatch, descriptionMatch), page.getContent());
+        assertEquals(2, page.getTotalElements());
+    }
+
+    @Test
+    void should_remove_deleted_task_from_text_search() throws Exception {
+        // Given
+        final var task = Task.create(TaskId.generate(), "Login bug", null, null, List.of());
+        when(taskRepository.save(any(Task.class))).thenReturn(task);
+        service.addTask(task);
+
+        // When
+        service.deleteTask(task.getId());
+
+        // Then
+        assertTrue(textIndex.search("login", 0, 10).taskIds().isEmpty());
+    }
+
     @Test
     void should_delete_task() {
         // Given
         final var taskId = TaskId.generate();
-        final var argumentCaptor = ArgumentCaptor.forClass(TaskId.class);
 
         // When
         service.deleteTask(taskId);
 
         // Then
-        verify(taskRepository).deleteById(argumentCaptor.capture());
-        final var capturedArgument = argumentCaptor.getValue();
-        assertEquals(taskId, capturedArgument);
+        verify(taskRepository).deleteAllInBulk(List.of(taskId.id()));
+        verify(taskRepository, never()).findById(any());
+    }
+
+    @Test
+    void should_delete_tasks_matching_search_in_chunks() {
+        // Given
+        final var taskIds = IntStream.range(0, 1500).mapToObj(i -> UUID.randomUUID()).toList();
+        final var searchParams = new TaskSearchParams(null, null, TaskStatus.Completed, null, null, null);
+        when(taskRepository.findIdsBySearchParams(null, null, TaskStatus.Completed, null, null, null)).thenReturn(taskIds);
+        when(taskRepository.deleteAllInBulk(any())).thenAnswer(invocation -> invocation.<Collection<?>>getArgument(0).size());
+
+        // When
+        final var deleted = service.deleteMatchingTasks(searchParams);
+
+        // Then
+        assertEquals(1500, deleted);
+        verify(taskRepository, times(2)).deleteAllInBulk(any());
+    }
+
+    @Test
+    void should_touch_all_tasks_of_user() {
+        // Given
+        final var userId = UserId.generate();
+        when(taskRepository.touchTasksOfUser(eq(userId.id()), any())).thenReturn(3);
+
+        // When
+        service.touchTasksOfUser(userId);
+
+        // Then
+        verify(taskRepository).touchTasksOfUser(eq(userId.id()), any());
     }
 
     @Test
@@ -117,70 +222,243 @@ class TaskServiceTest {
     }
 
     @Test
-    void should_update_task_status() throws TaskNotFoundException {
+    void should_reuse_cached_total_for_same_search_until_tasks_change() throws Exception {
+        // Given
+        final var pageable = PageRequest.of(0, 1);
+        final var task = Task.create(TaskId.generate(), "Fix bug", null, null, List.of());
+        when(taskRepository.findBySearchParams(any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(new SliceImpl<>(List.of(task), pageable, true));
+        when(taskRepository.countBySearchParams(any(), any(), any(), any(), any(), any())).thenReturn(42L);
+
+        // When
+        final var firstPage = service.findTasks(new TaskSearchParams("Bug", null, null, null, null, null), pageable);
+        final var samePage = service.findTasks(new TaskSearchParams("bug", null, null, null, null, null), pageable);
+        service.deleteTask(task.getId());
+        final var pageAfterChange = service.findTasks(new TaskSearchParams("bug", null, null, null, null, null), pageable);
+
+        // Then
+        verify(taskRepository, times(2)).countBySearchParams(any(), any(), any(), any(), any(), any());
+        assertEquals(42L, firstPage.getTotalElements());
+        assertEquals(42L, samePage.getTotalElements());
+        assertEquals(42L, pageAfterChange.getTotalElements());
+    }
+
+    @Test
+    void should_find_task_slice_without_counting() {
+        // Given
+        final var pageable = PageRequest.of(0, 1);
+        final var searchParams = new TaskSearchParams(null, null, TaskStatus.New, null, null, null);
+        when(taskRepository.findBySearchParams(any(), any(), any(), any(), any(), any(), any()))
+                .thenReturn(new SliceImpl<>(List.of(), pageable, false));
+
+        // When
+        service.findTaskSlice(searchParams, pageable);
+
+        // Then
+        verify(taskRepository, never()).countBySearchParams(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void should_page_tasks_by_cursor() {
+        // Given
+        final var searchParams = new TaskSearchParams(null, null, null, null, null, null);
+        final var sort = Sort.by(Sort.Direction.DESC, "deadline");
+        final var task1 = Task.create(TaskId.generate(), "Task 1", null, LocalDateTime.of(2030, 1, 2, 0, 0), List.of());
+        final var task2 = Task.create(TaskId.generate(), "Task 2", null, LocalDateTime.of(2030, 1, 1, 0, 0), List.of());
+        final var task3 = Task.create(TaskId.generate(), "Task 3", null, null, List.of());
+        final var keysetCaptor = ArgumentCaptor.forClass(Keyset.class);
+
+        when(taskRepository.findNextBySearchParams(any(), any(), any(), any(), any(), any(), any(), eq(3)))
+                .thenReturn(List.of(task1, task2, task3))
+                .thenReturn(List.of(task3));
+
+        // When
+        final var firstPage = service.findTasks(searchParams, "", 2, sort);
+        final var secondPage = service.findTasks(searchParams, firstPage.nextCursor(), 2, Sort.unsorted());
+
+        // Then
+        verify(taskRepository, times(2)).findNextBySearchParams(any(), any(), any(), any(), any(), any(), keysetCaptor.capture(), eq(3));
+        assertEquals(List.of(task1, task2), firstPage.content());
+        assertEquals(List.of(task3), secondPage.content());
+        assertNull(secondPage.nextCursor());
+        assertEquals(Keyset.first("deadline", Sort.Direction.DESC), keysetCaptor.getAllValues().get(0));
+        assertEquals(new Keyset("deadline", Sort.Direction.DESC, task2.getDeadline(), task2.getId().id()),
+                keysetCaptor.getAllValues().get(1));
+    }
+
+    @Test
+    void should_reject_cursor_paging_by_unsupported_property() {
+        // Given
+        final var searchParams = new TaskSearchParams(null, null, null, null, null, null);
+
+        // When & then
+        assertThrows(IllegalArgumentException.class,
+                () -> service.findTasks(searchParams, "", 10, Sort.by("description")));
+    }
+
+    @Test
+    void should_reject_malformed_cursor() {
+        // Given
+        final var searchParams = new TaskSearchParams(null, null, null, null, null, null);
+
+        // When & then
+        assertThrows(IllegalArgumentException.class,
+                () -> service.findTasks(searchParams, "not-a-cursor", 10, Sort.unsorted()));
+    }
+
+    @Test
+    void should_update_task_status_without_loading_it() throws Exception {
         // Given
         final var taskId = TaskId.generate();
         final var newStatus = TaskStatus.Active;
-        final var task = Task.create(taskId, "Task 1", null, null, List.of());
 
-        final var taskIdCaptor = ArgumentCaptor.forClass(TaskId.class);
-        final var taskCaptor = ArgumentCaptor.forClass(Task.class);
+        when(taskRepository.updateStatus(eq(taskId.id()), eq(newStatus), isNull(), any())).thenReturn(1);
 
-        when(taskRepository.findById(taskId)).thenReturn(Optional.of(task));
-        when(taskRepository.save(any(Task.class))).thenReturn(task);
+        // When
+        service.changeStatus(taskId, newStatus, null);
+
+        // Then
+        verify(taskRepository, never()).findById(any());
+        verify(taskRepository, never()).existsById(any());
+    }
+
+    @Test
+    void should_change_status_of_many_tasks_in_chunks() {
+        // Given
+        final var taskIds = IntStream.range(0, 2500).mapToObj(i -> TaskId.generate()).toList();
+        when(taskRepository.updateStatusOfAll(any(), eq(TaskStatus.Completed), any()))
+                .thenAnswer(invocation -> invocation.<Collection<?>>getArgument(0).size());
 
         // When
-        service.changeStatus(taskId, newStatus);
+        final var changed = service.changeStatusOfAll(taskIds, TaskStatus.Completed);
 
         // Then
-        verify(taskRepository).findById(taskIdCaptor.capture());
-        verify(taskRepository).save(taskCaptor.capture());
+        assertEquals(2500, changed);
+        verify(taskRepository, times(3)).updateStatusOfAll(any(), eq(TaskStatus.Completed), any());
+    }
 
-        assertEquals(taskId, taskIdCaptor.getValue());
-        assertEquals(newStatus, taskCaptor.getValue().getTaskStatus());
+    @Test
+    void should_not_update_status_of_task_at_other_version() {
+        // Given
+        final var taskId = TaskId.generate();
+        when(taskRepository.updateStatus(eq(taskId.id()), eq(TaskStatus.Active), eq(3L), any())).thenReturn(0);
+        when(taskRepository.existsById(taskId)).thenReturn(true);
+
+        // When & then
+        assertThrows(TaskVersionMismatchException.class, () -> service.changeStatus(taskId, TaskStatus.Active, 3L));
     }
 
     @Test
-    void should_assign_user_to_task() throws TaskNotFoundException, UserNotFoundException {
+    void should_not_update_status_of_missing_task() {
         // Given
         final var taskId = TaskId.generate();
-        final var task = Task.create(taskId, "Task 1", null, null, List.of());
-        final var userId = UserId.generate();
+        when(taskRepository.updateStatus(eq(taskId.id()), eq(TaskStatus.Active), eq(3L), any())).thenReturn(0);
+        when(taskRepository.existsById(taskId)).thenReturn(false);
 
-        final var taskIdCaptor = ArgumentCaptor.forClass(TaskId.class);
-        final var taskCaptor = ArgumentCaptor.forClass(Task.class);
+        // When & then
+        assertThrows(TaskNotFoundException.class, () -> service.changeStatus(taskId, TaskStatus.Active, 3L));
+    }
 
-        when(taskRepository.findById(taskId)).thenReturn(Optional.of(task));
-        when(userRepository.existsById(userId)).thenReturn(true);
-        when(taskRepository.save(any(Task.class))).thenReturn(task);
+    @Test
+    void should_assign_user_to_task() throws Exception {
+        // Given
+        final var taskId = TaskId.generate();
+        final var userId = UserId.generate();
+
+        when(userRepository.findMissingIds(List.of(userId))).thenReturn(Set.of());
+        when(taskRepository.touch(eq(taskId.id()), isNull(), any())).thenReturn(1);
 
         // When
-        service.assignUsers(taskId, List.of(userId));
+        service.assignUsers(taskId, List.of(userId), null);
 
         // Then
-        verify(taskRepository).findById(taskIdCaptor.capture());
-        verify(taskRepository).save(taskCaptor.capture());
+        verify(taskRepository).insertAssignees(taskId.id(), List.of(userId.id()));
+        verify(taskRepository, never()).findById(any());
+    }
 
-        assertEquals(taskId, taskIdCaptor.getValue());
-        assertEquals(List.of(userId), taskCaptor.getValue().getAssignedUsers());
+    @Test
+    void should_query_only_users_not_known_to_exist() throws Exception {
+        // Given
+        final var taskId = TaskId.generate();
+        final var knownUser = UserId.generate();
+        final var newUser = UserId.generate();
+        knownUserIds.add(knownUser);
+
+        when(userRepository.findMissingIds(List.of(newUser))).thenReturn(Set.of());
+        when(taskRepository.touch(eq(taskId.id()), isNull(), any())).thenReturn(1);
+
+        // When
+        service.assignUsers(taskId, List.of(knownUser, newUser), null);
+        service.assignUsers(taskId, List.of(knownUser, newUser), null);
+
+        // Then
+        verify(userRepository, times(1)).findMissingIds(any());
     }
 
     @Test
     void should_not_assign_non_existing_user_to_task() {
         // Given
         final var taskId = TaskId.generate();
-        final var task = Task.create(taskId, "Task 1", null, null, List.of());
         final var userId = UserId.generate();
 
-        when(taskRepository.findById(taskId)).thenReturn(Optional.of(task));
-        when(userRepository.existsById(userId)).thenReturn(false);
+        when(userRepository.findMissingIds(List.of(userId))).thenReturn(Set.of(userId));
+
+        // When & then
+        assertThrows(UserNotFoundException.class, () -> service.assignUsers(taskId, List.of(userId), null));
+        verify(taskRepository, never()).insertAssignees(any(), any());
+    }
+
+    @Test
+    void should_not_assign_users_to_task_at_other_version() {
+        // Given
+        final var taskId = TaskId.generate();
+        final var userId = UserId.generate();
+        knownUserIds.add(userId);
+
+        when(taskRepository.touch(eq(taskId.id()), eq(1L), any())).thenReturn(0);
+        when(taskRepository.existsById(taskId)).thenReturn(true);
+
+        // When & then
+        assertThrows(TaskVersionMismatchException.class, () -> service.assignUsers(taskId, List.of(userId), 1L));
+        verify(taskRepository, never()).insertAssignees(any(), any());
+    }
+
+    @Test
+    void should_not_assign_users_to_missing_task() {
+        // Given
+        final var taskId = TaskId.generate();
+        final var userId = UserId.generate();
+        knownUserIds.add(userId);
+
+        when(taskRepository.touch(eq(taskId.id()), isNull(), any())).thenReturn(0);
+        when(taskRepository.existsById(taskId)).thenReturn(false);
 
         // When & then
-        assertThrows(UserNotFoundException.class, () -> service.assignUsers(taskId, List.of(userId)));
+        assertThrows(TaskNotFoundException.class, () -> service.assignUsers(taskId, List.of(userId), null));
+        verify(taskRepository, never()).insertAssignees(any(), any());
+    }
+
+    @Test
+    void should_report_all_missing_users_at_once() {
+        // Given
+        final var existingUser = UserId.generate();
+        final var missingUser1 = UserId.generate();
+        final var missingUser2 = UserId.generate();
+        final var users = List.of(existingUser, missingUser1, missingUser2);
+        final var task = Task.create(TaskId.generate(), "Task 1", null, null, users);
+
+        when(userRepository.findMissingIds(users)).thenReturn(new LinkedHashSet<>(List.of(missingUser1, missingUser2)));
+
+        // When
+        final var exception = assertThrows(UserNotFoundException.class, () -> service.addTask(task));
+
+        // Then
+        assertEquals(List.of(missingUser1, missingUser2), exception.getUserIds());
+        verify(userRepository, never()).existsById(any());
     }
 
     @Test
-    void should_edit_task() throws TaskNotFoundException, UserNotFoundException, DomainObjectValidationException {
+    void should_edit_task() throws Exception {
         // Given
         final var taskId = TaskId.generate();
         final var initialTask = Task.create(taskId, "Task 1", null, null, List.of());
@@ -198,7 +476,7 @@ class TaskServiceTest {
         when(taskRepository.save(any(Task.class))).thenReturn(initialTask);
 
         // When
-        service.editTask(taskId, editTaskDto);
+        service.editTask(taskId, editTaskDto, null);
 
         // Then
         verify(taskRepository).findById(taskIdCaptor.capture());
@@ -208,5 +486,58 @@ class TaskServiceTest {
         assertEquals(editedTask, taskCaptor.getValue());
     }
 
+    @Test
+    void should_not_edit_task_at_other_version() {
+        // Given
+        final var taskId = TaskId.generate();
+        final var editTaskDto = new TaskEditDto(Optional.of("Task #1"), Optional.empty(), Optional.empty(), List.of());
+        when(taskRepository.findById(taskId)).thenReturn(Optional.of(Task.create(taskId, "Task 1", null, null, List.of())));
+
+        // When & then
+        assertThrows(TaskVersionMismatchException.class, () -> service.editTask(taskId, editTaskDto, 2L));
+        verify(taskRepository, never()).save(any());
+    }
+
+    @Test
+    void should_find_tasks_of_user_by_status() throws UserNotFoundException {
+        // Given
+        final var userId = UserId.generate();
+        final var task = Task.create(TaskId.generate(), "Task 1", null, null, List.of(userId));
+        when(taskRepository.findByAssignedUserAndStatus(userId.id(), "Active", PageRequest.of(1, 10)))
+                .thenReturn(new PageImpl<>(List.of(task)));
+
+        // When
+        final var tasks = service.findTasksOfUser(userId, TaskStatus.Active, PageRequest.of(1, 10, Sort.by("title")));
+
+        // Then
+        assertEquals(List.of(task), tasks.getContent());
+        verify(userRepository, never()).existsById(any());
+    }
+
+    @Test
+    void should_fail_to_find_tasks_of_missing_user() {
+        // Given
+        final var userId = UserId.generate();
+        when(taskRepository.findByAssignedUser(eq(userId.id()), any())).thenReturn(Page.empty());
+        when(userRepository.existsById(userId)).thenReturn(false);
+
+        // When & Then
+        assertThrows(UserNotFoundException.class, () -> service.findTasksOfUser(userId, null, PageRequest.of(0, 10)));
+    }
+
+    @Test
+    void should_find_all_tasks_of_user_unpaged() throws UserNotFoundException {
+        // Given
+        final var userId = UserId.generate();
+        final var task = Task.create(TaskId.generate(), "Task 1", null, null, List.of(userId));
+        when(taskRepository.findByAssignedUser(userId.id(), Pageable.unpaged())).thenReturn(new PageImpl<>(List.of(task)));
+
+        // When
+        final var tasks = service.findTasksOfUser(userId, null, Pageable.unpaged(Sort.by("title")));
+
+        // Then
+        assertEquals(List.of(task), tasks.getContent());
+    }
+
     // todo: add more tests for negative scenarios and edge cases
 }
\ No newline at end of file
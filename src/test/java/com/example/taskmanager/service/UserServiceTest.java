@@ -1,31 +1,51 @@
 package com.example.taskmanager.service;
 
+import com.example.taskmanager.db.Keyset;
 import com.example.taskmanager.db.UserRepository;
 import com.example.taskmanager.domain.User;
 import com.example.taskmanager.domain.UserId;
+import com.example.taskmanager.search.UserSearchIndex;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
 import java.util.Collections;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class UserServiceTest {
 
-    @InjectMocks
     private UserService service;
     @Mock
     private UserRepository repository;
+    private final UserSearchIndex searchIndex = new UserSearchIndex();
+    private final KnownUserIds knownUserIds = new KnownUserIds();
+    @Mock
+    private TaskService taskService;
+
+    @BeforeEach
+    void setUp() {
+        service = new UserService(repository, Duration.ofMinutes(1), searchIndex, knownUserIds, taskService);
+    }
 
     @Test
     void should_save_user() throws DomainObjectValidationException {
@@ -44,6 +64,72 @@ class UserServiceTest {
         assertEquals(user, capturedArgument);
     }
 
+    @Test
+    void should_save_users_in_batch() throws DomainObjectValidationException {
+        // Given
+        final var users = List.of(
+                User.create(UserId.generate(), "Alice", "Smith", "alice@acme.com"),
+                User.create(UserId.generate(), "Bob", "Nakamoto", "bob@acme.com"));
+
+        // When
+        service.addUsers(users);
+
+        // Then
+        verify(repository).insertAll(users);
+    }
+
+    @Test
+    void should_reject_users_violating_constraints() {
+        // Given
+        final var users = List.of(User.create(UserId.generate(), "Alice", "Smith", "alice@acme.com"));
+        doThrow(new DataIntegrityViolationException("Value too long for column")).when(repository).insertAll(users);
+
+        // When & Then
+        assertThrows(DomainObjectValidationException.class, () -> service.addUsers(users));
+    }
+
+    @Test
+    void should_pass_on_failures_not_caused_by_users() {
+        // Given
+        final var users = List.of(User.create(UserId.generate(), "Alice", "Smith", "alice@acme.com"));
+        doThrow(new DataAccessResourceFailureException("Connection is not available")).when(repository).insertAll(users);
+
+        // When & Then
+        assertThrows(DataAccessResourceFailureException.class, () -> service.addUsers(users));
+    }
+
+    @Test
+    void should_forget_deleted_user() throws DomainObjectValidationException {
+        // Given
+        final var user = User.create(UserId.generate(), "Alice", "Smith", "alice@acme.com");
+        service.addUser(user);
+
+        // When
+        service.deleteUser(user.getId());
+
+        // Then
+        assertEquals(List.of(user.getId()), knownUserIds.unknownOf(List.of(user.getId())));
+    }
+
+    @Test
+    void should_still_know_user_whose_deletion_did_not_commit() throws DomainObjectValidationException {
+        // Given
+        final var user = User.create(UserId.generate(), "Alice", "Smith", "alice@acme.com");
+        service.addUser(user);
+
+        // When
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.deleteUser(user.getId());
+        } finally {
+            // the transaction ends without committing
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Then
+        assertEquals(List.of(), knownUserIds.unknownOf(List.of(user.getId())));
+    }
+
     @Test
     void should_delete_user() {
         // Given
@@ -57,6 +143,7 @@ class UserServiceTest {
         verify(repository).deleteById(argumentCaptor.capture());
         final var capturedArgument = argumentCaptor.getValue();
         assertEquals(userId, capturedArgument);
+        verify(taskService).touchTasksOfUser(userId);
     }
 
     @Test
@@ -86,4 +173,73 @@ class UserServiceTest {
         assertEquals(searchParams.email(), capturedArgs.get(2));
     }
 
-}
\ No newline at end of file
+    @Test
+    void should_page_users_by_cursor() {
+        // Given
+        final var searchParams = new UserSearchParams(null, "Smith", null);
+        final var alice = User.create(UserId.generate(), "Alice", "Smith", "alice@acme.com");
+        final var bob = User.create(UserId.generate(), "Bob", "Smith", "bob@acme.com");
+
+        when(repository.findNextBySearchParams(any(), any(), any(), any(), eq(2)))
+                .thenReturn(List.of(alice, bob));
+
+        // When
+        final var page = service.findUsers(searchParams, null, 1, Sort.by("firstName"));
+
+        // Then
+        final var keysetCaptor = ArgumentCaptor.forClass(Keyset.class);
+        verify(repository).findNextBySearchParams(eq(null), eq("Smith"), eq(null), keysetCaptor.capture(), eq(2));
+        assertEquals(Keyset.first("firstName", Sort.Direction.ASC), keysetCaptor.getValue());
+        assertEquals(List.of(alice), page.content());
+        assertNotNull(page.nextCursor());
+    }
+
+    @Test
+    void should_suggest_added_users_until_deleted() throws DomainObjectValidationException {
+        // Given
+        final var user = User.create(UserId.generate(), "Alice", "Smith", "alice@acme.com");
+        service.addUser(user);
+
+        // When
+        final var suggestions = service.suggestUsers("smi", 10);
+        service.deleteUser(user.getId());
+
+        // Then
+        assertEquals(List.of(new UserSearchIndex.Suggestion(user.getId(), "Alice Smith")), suggestions);
+        assertTrue(service.suggestUsers("smi", 10).isEmpty());
+    }
+
+    @Test
+    void should_keep_suggesting_user_whose_deletion_did_not_commit() throws DomainObjectValidationException {
+        // Given
+        final var user = User.create(UserId.generate(), "Alice", "Smith", "alice@acme.com");
+        service.addUser(user);
+
+        // When
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.deleteUser(user.getId());
+        } finally {
+            // the transaction ends without committing
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Then
+        assertEquals(List.of(new UserSearchIndex.Suggestion(user.getId(), "Alice Smith")), service.suggestUsers("smi", 10));
+    }
+
+    @Test
+    void should_rebuild_indexes_from_repository() {
+        // Given
+        final var user = User.create(UserId.generate(), "Alice", "Smith", "alice@acme.com");
+        when(repository.findNextBySearchParams(any(), any(), any(), any(), anyInt())).thenReturn(List.of(user));
+
+        // When
+        service.rebuildIndexes();
+
+        // Then
+        assertEquals(List.of(user.getId()), service.suggestUsers("alice", 10).stream()
+                .map(UserSearchIndex.Suggestion::userId).toList());
+        assertTrue(knownUserIds.unknownOf(List.of(user.getId())).isEmpty());
+    }
+}